@@ -0,0 +1,86 @@
+package capstone.notificationservice.benchmark;
+
+import capstone.notificationservice.dto.NotificationDTO;
+import capstone.notificationservice.entity.Notification;
+import capstone.notificationservice.enums.NotificationType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of turning one page of notification entities into response DTOs. {@code entityMapping}
+ * is the previous builder mapper with its time zone round trip, {@code fromEntity} the current
+ * one. The JPQL constructor projection skips entity hydration, which only a database-backed run
+ * can measure; {@code NotificationListAllocationTest} compares it against the entity read.
+ * Run with {@code ./gradlew jmh}; the gc profiler reports allocation per page.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class NotificationPageMappingBenchmark {
+
+    @Param({"20", "100"})
+    public int pageSize;
+
+    private List<Notification> entities;
+
+    @Setup
+    public void setUp() {
+        entities = new ArrayList<>(pageSize);
+        LocalDateTime now = LocalDateTime.now();
+
+        for (int i = 0; i < pageSize; i++) {
+            Notification notification = Notification.builder()
+                    .id((long) i)
+                    .userId(42L)
+                    .title("Sự kiện đã được dời lịch")
+                    .message("Concert Mùa Hè 2024 đã được dời sang 27/07/2024, vé của bạn vẫn còn hiệu lực.")
+                    .type(NotificationType.EVENT)
+                    .read(i % 3 == 0)
+                    .createdAt(now.minusMinutes(i))
+                    .readAt(i % 3 == 0 ? now : null)
+                    .imageUrl("https://evoticket.example/images/event.png")
+                    .build();
+            entities.add(notification);
+        }
+    }
+
+    @Benchmark
+    public List<NotificationDTO> entityMapping() {
+        return entities.stream().map(NotificationPageMappingBenchmark::legacyFromEntity).toList();
+    }
+
+    @Benchmark
+    public List<NotificationDTO> fromEntity() {
+        return entities.stream().map(NotificationDTO::fromEntity).toList();
+    }
+
+    // mapper as it was before the projection change, kept here as the baseline
+    private static NotificationDTO legacyFromEntity(Notification notification) {
+        return NotificationDTO.builder()
+                .id(notification.getId())
+                .userId(notification.getUserId())
+                .title(notification.getTitle())
+                .message(notification.getMessage())
+                .type(notification.getType())
+                .isRead(notification.isRead())
+                .createdAt(notification.getCreatedAt().atZone(ZoneId.systemDefault()).toLocalDateTime())
+                .readAt(Optional.ofNullable(notification.getReadAt())
+                        .map(t -> t.atZone(ZoneId.systemDefault()).toLocalDateTime())
+                        .orElse(null))
+                .imageUrl(notification.getImageUrl())
+                .build();
+    }
+}
@@ -0,0 +1,95 @@
+package capstone.notificationservice.benchmark;
+
+import capstone.notificationservice.event.OrderConfirmEvent;
+import capstone.notificationservice.service.TemplateRenderer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Render cost per mail for the templates in src/main/resources/templates.
+ * Run with {@code ./gradlew jmh}; the gc profiler reports allocation per render.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TemplateRenderBenchmark {
+
+    @Param({TemplateRenderer.OTP_EMAIL, TemplateRenderer.WELCOME_EMAIL, TemplateRenderer.ORDER_CONFIRM_EMAIL})
+    public String template;
+
+    private SpringTemplateEngine templateEngine;
+    private TemplateRenderer templateRenderer;
+    private Context context;
+
+    @Setup
+    public void setUp() {
+        ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+        resolver.setPrefix("templates/");
+        resolver.setSuffix(".html");
+        resolver.setTemplateMode(TemplateMode.HTML);
+        resolver.setCharacterEncoding("UTF-8");
+        resolver.setCacheable(true);
+
+        templateEngine = new SpringTemplateEngine();
+        templateEngine.setTemplateResolver(resolver);
+        templateRenderer = new TemplateRenderer(templateEngine, new SimpleMeterRegistry());
+        templateRenderer.warmUp();
+        context = sampleContext(template);
+    }
+
+    @Benchmark
+    public String engineProcess() {
+        return templateEngine.process(template, context);
+    }
+
+    @Benchmark
+    public String renderer() {
+        return templateRenderer.render(template, context);
+    }
+
+    private static Context sampleContext(String template) {
+        Context context = new Context();
+        context.setVariable("email", "attendee@example.com");
+        context.setVariable("fullName", "Nguyễn Văn A");
+
+        switch (template) {
+            case TemplateRenderer.OTP_EMAIL -> context.setVariable("otpCode", "482913");
+            case TemplateRenderer.WELCOME_EMAIL -> context.setVariable("username", "nguyenvana");
+            default -> {
+                context.setVariable("orderCode", "EVT-2024-00123");
+                context.setVariable("totalAmount", new BigDecimal("1800000"));
+                context.setVariable("discountCode", "PROMO10");
+                context.setVariable("discountAmount", new BigDecimal("200000"));
+                context.setVariable("ticketDownloadUrl", "https://evoticket.example/tickets/EVT-2024-00123");
+                context.setVariable("eventName", "Concert Mùa Hè 2024");
+                context.setVariable("eventDate", "Thứ Bảy, 20/07/2024");
+                context.setVariable("eventTime", "18:00 - 22:00");
+                context.setVariable("eventLocation", "Nhà Hát Lớn Hà Nội");
+                context.setVariable("eventAddress", "1 Tràng Tiền, Hoàn Kiếm, Hà Nội");
+                context.setVariable("organizerName", "EvoEvent Co.");
+                context.setVariable("paymentMethod", "VNPay");
+                context.setVariable("transactionId", "VNP20240720123456");
+                context.setVariable("paidAt", "20/07/2024 lúc 15:32:10");
+                context.setVariable("ticketItems", List.of(
+                        new OrderConfirmEvent.TicketItemDto("VIP", 2, new BigDecimal("500000"), new BigDecimal("1000000")),
+                        new OrderConfirmEvent.TicketItemDto("Standard", 4, new BigDecimal("250000"), new BigDecimal("1000000"))));
+            }
+        }
+        return context;
+    }
+}
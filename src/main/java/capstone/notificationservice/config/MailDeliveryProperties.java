@@ -0,0 +1,19 @@
+package capstone.notificationservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.mail")
+public class MailDeliveryProperties {
+
+    private int poolSize = 8;
+    private int reservedOtpWorkers = 2;
+    private int maxMessagesPerConnection = 100;
+    private Duration validateAfterIdle = Duration.ofSeconds(10);
+    private Duration shutdownTimeout = Duration.ofSeconds(30);
+}
@@ -0,0 +1,48 @@
+package capstone.notificationservice.config;
+
+import capstone.notificationservice.enums.NotificationType;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.Map;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.retention")
+public class RetentionProperties {
+
+    /**
+     * Turns purging and dropping off; upcoming partitions are created regardless.
+     */
+    private boolean enabled = true;
+    private int monthsAhead = 3;
+    private int deleteBatchSize = 5000;
+    private Duration defaultRetention = Duration.ofDays(365);
+    private Map<NotificationType, Duration> types = new EnumMap<>(NotificationType.class);
+    /**
+     * Move expired partitions to the archive schema instead of dropping them.
+     */
+    private boolean archive = false;
+    private String archiveSchema = "notification_archive";
+
+    public Duration retentionFor(NotificationType type) {
+        return types.getOrDefault(type, defaultRetention);
+    }
+
+    public Duration maxRetention() {
+        return types.values().stream()
+                .reduce(defaultRetention, (a, b) -> a.compareTo(b) >= 0 ? a : b);
+    }
+
+    /**
+     * Oldest creation time still visible to users. Bounding queries by it lets Postgres skip
+     * partitions that are only waiting to be dropped.
+     */
+    public LocalDateTime visibleSince() {
+        return LocalDateTime.now().minus(maxRetention());
+    }
+}
@@ -0,0 +1,110 @@
+package capstone.notificationservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.stream")
+public class StreamConsumerProperties {
+
+    private String group = "notification-service-group";
+    private String consumerName;
+    private boolean virtualThreads = true;
+    private int defaultConcurrency = 4;
+    private Duration drainTimeout = Duration.ofSeconds(30);
+    private int batchSize = 10;
+    private Duration pollTimeout = Duration.ofSeconds(5);
+    private Map<String, StreamSettings> streams = new LinkedHashMap<>();
+    private Reclaim reclaim = new Reclaim();
+    private Ack ack = new Ack();
+    private Retry retry = new Retry();
+    private Idempotency idempotency = new Idempotency();
+    private Housekeeping housekeeping = new Housekeeping();
+
+    public StreamSettings settingsFor(String streamKey) {
+        return streams.getOrDefault(streamKey, new StreamSettings());
+    }
+
+    public RetryPolicy retryPolicyFor(String streamKey) {
+        RetryPolicy policy = settingsFor(streamKey).getRetry();
+        return policy != null ? policy : retry.getPolicy();
+    }
+
+    @Data
+    public static class StreamSettings {
+        private Integer concurrency;
+        private boolean batch;
+        private RetryPolicy retry;
+    }
+
+    @Data
+    public static class Retry {
+        private String queueKey = "notification:retry";
+        private String deadLetterSuffix = ".dlq";
+        private long pollIntervalMs = 1000;
+        private int batchSize = 100;
+        private RetryPolicy policy = new RetryPolicy();
+    }
+
+    @Data
+    public static class RetryPolicy {
+        private int maxAttempts = 5;
+        private Duration initialBackoff = Duration.ofSeconds(2);
+        private double multiplier = 2.0;
+        private Duration maxBackoff = Duration.ofMinutes(5);
+    }
+
+    @Data
+    public static class Ack {
+        private int batchSize = 50;
+        private long flushIntervalMs = 200;
+    }
+
+    @Data
+    public static class Reclaim {
+        private boolean enabled = true;
+        private long intervalMs = 30_000;
+        private Duration minIdle = Duration.ofMinutes(5);
+        private int batchSize = 100;
+        private Duration staleConsumerAfter = Duration.ofHours(1);
+    }
+
+    @Data
+    public static class Idempotency {
+        private boolean enabled = true;
+        private String keyPrefix = "notification:dedup:";
+        /**
+         * How long a worker owns an event while handling it; should not exceed reclaim.min-idle.
+         */
+        private Duration lease = Duration.ofMinutes(5);
+        /**
+         * How often leases of running handlers are extended; well below the lease.
+         */
+        private long renewIntervalMs = 60_000;
+        /**
+         * How long a handled event is remembered.
+         */
+        private Duration window = Duration.ofHours(24);
+        private int localCacheSize = 10_000;
+    }
+
+    @Data
+    public static class Housekeeping {
+        private boolean enabled = true;
+        private long intervalMs = 60_000;
+        /**
+         * Entries this much older than the oldest one still needed by any group are kept anyway.
+         */
+        private Duration safetyMargin = Duration.ofHours(1);
+        /**
+         * Consecutive samples of a growing backlog before a warning is logged.
+         */
+        private int growthWarnSamples = 5;
+    }
+}
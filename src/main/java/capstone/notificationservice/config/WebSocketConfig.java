@@ -1,17 +1,30 @@
 package capstone.notificationservice.config;
 
+import capstone.notificationservice.security.StompAuthChannelInterceptor;
+import capstone.notificationservice.websocket.ReplayOnSubscribeInterceptor;
+import capstone.notificationservice.websocket.WebSocketMetrics;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
 
 @Slf4j
 @Configuration
 @EnableWebSocketMessageBroker
+@RequiredArgsConstructor
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    private final StompAuthChannelInterceptor stompAuthChannelInterceptor;
+    private final ReplayOnSubscribeInterceptor replayOnSubscribeInterceptor;
+    private final WebSocketProperties properties;
+    private final WebSocketMetrics webSocketMetrics;
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
         config.enableSimpleBroker("/topic", "/queue");
@@ -20,6 +33,9 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
         config.setUserDestinationPrefix("/user");
 
+        // outbound tasks may run on any thread, keep frames of one session in order
+        config.setPreservePublishOrder(true);
+
         log.info("WebSocket message broker configured");
     }
 
@@ -29,6 +45,47 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
                 .setAllowedOriginPatterns("*")
                 .withSockJS();
 
-        log.info("WebSocket STOMP endpoint registered at /ws");
+        registry.addEndpoint(properties.getNativeEndpoint())
+                .setAllowedOriginPatterns("*");
+
+        registry.setPreserveReceiveOrder(true);
+
+        log.info("WebSocket STOMP endpoints registered at /ws (SockJS) and {} (native)", properties.getNativeEndpoint());
+    }
+
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        registration.setSendTimeLimit((int) properties.getSendTimeLimit().toMillis())
+                .setSendBufferSizeLimit((int) properties.getSendBufferSizeLimit().toBytes())
+                .setMessageSizeLimit((int) properties.getMessageSizeLimit().toBytes())
+                .addDecoratorFactory(webSocketMetrics::decorate);
+    }
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        registration.interceptors(stompAuthChannelInterceptor, replayOnSubscribeInterceptor);
+
+        registration.taskExecutor(channelExecutor("ws-inbound-", properties.getInboundPoolSize()));
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        registration.taskExecutor(channelExecutor("ws-outbound-", properties.getOutboundPoolSize()));
+    }
+
+    /**
+     * Sized pool for a client channel. With virtual threads the pool still bounds concurrency,
+     * but a worker blocked on a slow session no longer pins a platform thread.
+     */
+    private ThreadPoolTaskExecutor channelExecutor(String threadNamePrefix, int poolSize) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix(threadNamePrefix);
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setAllowCoreThreadTimeOut(true);
+        if (properties.isVirtualThreads()) {
+            executor.setThreadFactory(Thread.ofVirtual().name(threadNamePrefix, 0).factory());
+        }
+        return executor;
     }
 }
@@ -1,5 +1,8 @@
 package capstone.notificationservice.config;
 
+import capstone.notificationservice.websocket.UserNotificationRelay;
+import capstone.notificationservice.websocket.UserPresence;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.event.EventListener;
 import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
@@ -7,15 +10,27 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.socket.messaging.SessionConnectedEvent;
 import org.springframework.web.socket.messaging.SessionDisconnectEvent;
 
+import java.security.Principal;
+
 @Slf4j
 @Component
+@RequiredArgsConstructor
 public class WebSocketEventListener {
 
+    private final UserNotificationRelay userNotificationRelay;
+    private final UserPresence userPresence;
+
     @EventListener
     public void handleWebSocketConnectListener(SessionConnectedEvent event) {
         StompHeaderAccessor headerAccessor = StompHeaderAccessor.wrap(event.getMessage());
         String sessionId = headerAccessor.getSessionId();
         log.info("WebSocket connection established. Session ID: {}", sessionId);
+
+        Long userId = userIdOf(event.getUser());
+        if (userId != null) {
+            userNotificationRelay.sessionConnected(userId, sessionId);
+            userPresence.connected(userId, sessionId);
+        }
     }
 
     @EventListener
@@ -23,5 +38,22 @@ public class WebSocketEventListener {
         StompHeaderAccessor headerAccessor = StompHeaderAccessor.wrap(event.getMessage());
         String sessionId = headerAccessor.getSessionId();
         log.info("WebSocket connection closed. Session ID: {}", sessionId);
+
+        Long userId = userIdOf(event.getUser());
+        if (userId != null) {
+            userNotificationRelay.sessionDisconnected(userId, sessionId);
+            userPresence.disconnected(userId, sessionId);
+        }
+    }
+
+    private Long userIdOf(Principal user) {
+        if (user == null) {
+            return null;
+        }
+        try {
+            return Long.valueOf(user.getName());
+        } catch (NumberFormatException e) {
+            return null;
+        }
     }
 }
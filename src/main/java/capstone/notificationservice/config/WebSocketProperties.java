@@ -0,0 +1,54 @@
+package capstone.notificationservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.websocket")
+public class WebSocketProperties {
+
+    /**
+     * Plain WebSocket endpoint served next to the SockJS one, without SockJS framing and fallbacks.
+     */
+    private String nativeEndpoint = "/ws-native";
+    /**
+     * Run client inbound/outbound channel tasks on virtual threads instead of sized pools.
+     */
+    private boolean virtualThreads = true;
+    private int inboundPoolSize = 32;
+    private int outboundPoolSize = 64;
+    /**
+     * A session whose single send takes longer than this, or whose buffer grows past the
+     * buffer limit, is closed instead of holding up the broker.
+     */
+    private Duration sendTimeLimit = Duration.ofSeconds(10);
+    private DataSize sendBufferSizeLimit = DataSize.ofKilobytes(256);
+    private DataSize messageSizeLimit = DataSize.ofKilobytes(64);
+
+    private Relay relay = new Relay();
+    private Coalesce coalesce = new Coalesce();
+
+    @Data
+    public static class Relay {
+        /**
+         * When disabled, user destinations go straight to the local simple broker (single replica only).
+         */
+        private boolean enabled = true;
+        private String channelPrefix = "notification:ws:";
+        private int shards = 64;
+    }
+
+    @Data
+    public static class Coalesce {
+        /**
+         * How long the first push to a user waits for more before the frame is sent; 0 disables coalescing.
+         */
+        private long windowMs = 50;
+        private int maxItems = 20;
+    }
+}
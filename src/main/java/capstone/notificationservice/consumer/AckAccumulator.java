@@ -0,0 +1,113 @@
+package capstone.notificationservice.consumer;
+
+import capstone.notificationservice.config.StreamConsumerProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Collects processed record IDs per stream and acknowledges them with one multi-ID XACK
+ * once a stream reaches the batch size, or on the periodic flush which pipelines the
+ * XACKs of every stream into a single round-trip.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AckAccumulator {
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final StreamConsumerProperties properties;
+    private final Map<String, PendingAcks> pendingByStream = new ConcurrentHashMap<>();
+
+    public void add(String streamKey, String recordId) {
+        PendingAcks pending = pendingByStream.computeIfAbsent(streamKey, key -> new PendingAcks());
+        pending.ids().add(recordId);
+
+        if (pending.size().incrementAndGet() >= properties.getAck().getBatchSize()) {
+            flush(streamKey);
+        }
+    }
+
+    public void flush(String streamKey) {
+        PendingAcks pending = pendingByStream.get(streamKey);
+        if (pending == null) {
+            return;
+        }
+
+        List<String> ids = pending.drain();
+        if (ids.isEmpty()) {
+            return;
+        }
+
+        try {
+            redisTemplate.opsForStream().acknowledge(streamKey, properties.getGroup(), ids.toArray(String[]::new));
+            log.debug("Acknowledged {} record(s) on stream '{}'", ids.size(), streamKey);
+        } catch (Exception e) {
+            log.error("Failed to acknowledge {} record(s) on stream '{}', will retry on next flush",
+                    ids.size(), streamKey, e);
+            pending.requeue(ids);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.stream.ack.flush-interval-ms:200}")
+    public void flushAll() {
+        Map<String, List<String>> batches = new LinkedHashMap<>();
+        pendingByStream.forEach((streamKey, pending) -> {
+            List<String> ids = pending.drain();
+            if (!ids.isEmpty()) {
+                batches.put(streamKey, ids);
+            }
+        });
+
+        if (batches.isEmpty()) {
+            return;
+        }
+
+        String group = properties.getGroup();
+        try {
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                batches.forEach((streamKey, ids) -> connection.streamCommands()
+                        .xAck(streamKey.getBytes(StandardCharsets.UTF_8), group, ids.toArray(String[]::new)));
+                return null;
+            });
+        } catch (Exception e) {
+            log.error("Failed to flush acknowledgements for streams {}, will retry on next flush", batches.keySet(), e);
+            batches.forEach((streamKey, ids) -> pendingByStream.get(streamKey).requeue(ids));
+        }
+    }
+
+    private record PendingAcks(Queue<String> ids, AtomicInteger size) {
+
+        PendingAcks() {
+            this(new ConcurrentLinkedQueue<>(), new AtomicInteger());
+        }
+
+        List<String> drain() {
+            List<String> drained = new ArrayList<>();
+            String id;
+            while ((id = ids.poll()) != null) {
+                drained.add(id);
+            }
+            size.addAndGet(-drained.size());
+            return drained;
+        }
+
+        void requeue(List<String> drained) {
+            ids.addAll(drained);
+            size.addAndGet(drained.size());
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package capstone.notificationservice.consumer;
+
+import capstone.notificationservice.config.StreamConsumerProperties;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.netflix.eureka.EurekaInstanceConfigBean;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.net.InetAddress;
+import java.util.UUID;
+
+/**
+ * Resolves the consumer name this replica registers in the stream consumer group.
+ * Every replica must use a distinct name, otherwise they share one pending entries list
+ * and a crashed pod's in-flight records can never be told apart from a live one's.
+ */
+@Slf4j
+@Getter
+@Component
+public class ConsumerIdentity {
+
+    private final String consumerName;
+
+    public ConsumerIdentity(StreamConsumerProperties properties,
+                            ObjectProvider<EurekaInstanceConfigBean> eurekaInstance,
+                            @Value("${spring.application.name}") String applicationName) {
+        this.consumerName = resolve(properties, eurekaInstance, applicationName);
+        log.info("Stream consumer identity resolved to '{}'", consumerName);
+    }
+
+    private String resolve(StreamConsumerProperties properties,
+                           ObjectProvider<EurekaInstanceConfigBean> eurekaInstance,
+                           String applicationName) {
+        if (StringUtils.hasText(properties.getConsumerName())) {
+            return properties.getConsumerName();
+        }
+
+        EurekaInstanceConfigBean instance = eurekaInstance.getIfAvailable();
+        if (instance != null && StringUtils.hasText(instance.getInstanceId())) {
+            return instance.getInstanceId();
+        }
+
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "unknown-host";
+        }
+        return applicationName + ":" + host + ":" + UUID.randomUUID().toString().substring(0, 8);
+    }
+}
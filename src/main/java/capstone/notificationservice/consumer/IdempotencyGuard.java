@@ -0,0 +1,175 @@
+package capstone.notificationservice.consumer;
+
+import capstone.notificationservice.config.StreamConsumerProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Makes stream handling idempotent across redeliveries, retries and reclaims by other replicas.
+ * Each event is keyed on the producer's {@code eventId} field, or on stream + original entry ID.
+ * A worker takes a short lease with SET NX before handling it. Afterwards the key is set to
+ * {@code done} for the dedup window. Leases held by this replica are extended every
+ * {@code renew-interval-ms} while their handler runs, so a slow handler keeps its event and a
+ * reclaim by another replica sees it as in progress. Recently completed keys are also held in a
+ * local LRU, so redeliveries to the same replica skip the round-trip.
+ */
+@Slf4j
+@Component
+public class IdempotencyGuard {
+
+    public static final String EVENT_ID_FIELD = "eventId";
+
+    private static final String DONE = "done";
+
+    private static final RedisScript<String> ACQUIRE = new DefaultRedisScript<>("""
+            if redis.call('SET', KEYS[1], ARGV[1], 'NX', 'PX', ARGV[2]) then return 'acquired' end
+            return redis.call('GET', KEYS[1])
+            """, String.class);
+
+    // only the lease holder may give the key back
+    private static final RedisScript<Long> RELEASE = new DefaultRedisScript<>("""
+            if redis.call('GET', KEYS[1]) == ARGV[1] then return redis.call('DEL', KEYS[1]) end
+            return 0
+            """, Long.class);
+
+    private static final RedisScript<Long> RENEW = new DefaultRedisScript<>("""
+            if redis.call('GET', KEYS[1]) == ARGV[1] then return redis.call('PEXPIRE', KEYS[1], ARGV[2]) end
+            return 0
+            """, Long.class);
+
+    public enum Decision { ACQUIRED, DUPLICATE, IN_PROGRESS }
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final StreamConsumerProperties.Idempotency properties;
+    private final String owner;
+    private final Map<String, Long> recentlyDone;
+    private final Set<String> held = ConcurrentHashMap.newKeySet();
+
+    public IdempotencyGuard(RedisTemplate<String, Object> redisTemplate,
+                            StreamConsumerProperties streamProperties,
+                            ConsumerIdentity consumerIdentity) {
+        this.redisTemplate = redisTemplate;
+        this.properties = streamProperties.getIdempotency();
+        this.owner = "processing:" + consumerIdentity.getConsumerName();
+        int capacity = properties.getLocalCacheSize();
+        this.recentlyDone = new LinkedHashMap<>(capacity, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    public String keyFor(MapRecord<String, String, String> record) {
+        Map<String, String> body = record.getValue();
+        String eventId = body.get(EVENT_ID_FIELD);
+        if (eventId == null || eventId.isBlank()) {
+            eventId = body.getOrDefault(RetryScheduler.ORIGINAL_ID_FIELD, record.getId().getValue());
+        }
+        return properties.getKeyPrefix() + record.getRequiredStream() + ":" + eventId;
+    }
+
+    /**
+     * Fails open: when Redis cannot be asked the event is handled, a duplicate beats a lost notification.
+     */
+    public Decision acquire(String key) {
+        if (!properties.isEnabled()) {
+            return Decision.ACQUIRED;
+        }
+        if (isRecentlyDone(key)) {
+            return Decision.DUPLICATE;
+        }
+
+        try {
+            String state = redisTemplate.execute(ACQUIRE, List.of(key), owner, String.valueOf(properties.getLease().toMillis()));
+            if (DONE.equals(state)) {
+                remember(key);
+                return Decision.DUPLICATE;
+            }
+            if ("acquired".equals(state)) {
+                held.add(key);
+                return Decision.ACQUIRED;
+            }
+            return Decision.IN_PROGRESS;
+        } catch (Exception e) {
+            log.warn("Idempotency check failed for {}, handling the event anyway: {}", key, e.getMessage());
+            return Decision.ACQUIRED;
+        }
+    }
+
+    public void markDone(String key) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        held.remove(key);
+        remember(key);
+        try {
+            redisTemplate.opsForValue().set(key, DONE, properties.getWindow());
+        } catch (Exception e) {
+            log.warn("Failed to mark {} as done: {}", key, e.getMessage());
+        }
+    }
+
+    public void release(String key) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        held.remove(key);
+        try {
+            redisTemplate.execute(RELEASE, List.of(key), owner);
+        } catch (Exception e) {
+            log.warn("Failed to release {}, it frees itself when the lease ends: {}", key, e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.stream.idempotency.renew-interval-ms:60000}")
+    public void renewLeases() {
+        if (!properties.isEnabled() || held.isEmpty()) {
+            return;
+        }
+        String lease = String.valueOf(properties.getLease().toMillis());
+        for (String key : held) {
+            try {
+                Long renewed = redisTemplate.execute(RENEW, List.of(key), owner, lease);
+                if (renewed == null || renewed == 0) {
+                    // expired while Redis was unreachable, or taken over; nothing left to extend
+                    held.remove(key);
+                    log.warn("Lost the lease on {} while handling it", key);
+                }
+            } catch (Exception e) {
+                log.warn("Failed to renew lease on {}: {}", key, e.getMessage());
+            }
+        }
+    }
+
+    private boolean isRecentlyDone(String key) {
+        synchronized (recentlyDone) {
+            Long doneAt = recentlyDone.get(key);
+            if (doneAt == null) {
+                return false;
+            }
+            if (System.currentTimeMillis() - doneAt > properties.getWindow().toMillis()) {
+                recentlyDone.remove(key);
+                return false;
+            }
+            return true;
+        }
+    }
+
+    private void remember(String key) {
+        synchronized (recentlyDone) {
+            recentlyDone.put(key, System.currentTimeMillis());
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package capstone.notificationservice.consumer;
+
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Stream entries this replica has taken and not finished yet, from the moment they are read until
+ * their handler returns. The reclaimer leaves these alone even when they sit idle in the PEL.
+ */
+@Component
+public class InFlightRecords {
+
+    private final Set<String> records = ConcurrentHashMap.newKeySet();
+
+    public void add(String streamKey, RecordId id) {
+        records.add(key(streamKey, id));
+    }
+
+    public void remove(String streamKey, RecordId id) {
+        records.remove(key(streamKey, id));
+    }
+
+    public boolean contains(String streamKey, RecordId id) {
+        return records.contains(key(streamKey, id));
+    }
+
+    private static String key(String streamKey, RecordId id) {
+        return streamKey + "/" + id.getValue();
+    }
+}
@@ -0,0 +1,82 @@
+package capstone.notificationservice.consumer;
+
+import capstone.notificationservice.config.StreamConsumerProperties;
+import capstone.notificationservice.exception.AppException;
+import capstone.notificationservice.exception.ErrorCode;
+import capstone.notificationservice.handler.NotificationEventHandler;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streams this service consumes, one per {@link NotificationEventHandler} bean. Readers for the
+ * payload types are resolved once from the application's ObjectMapper.
+ */
+@Slf4j
+@Component
+public class NotificationEventRegistry {
+
+    private final Map<String, Registration<?>> registrations = new LinkedHashMap<>();
+    private final StreamConsumerProperties properties;
+    private final List<String> streamKeys;
+
+    public NotificationEventRegistry(List<NotificationEventHandler<?>> handlers,
+                                     ObjectMapper objectMapper,
+                                     StreamConsumerProperties properties) {
+        this.properties = properties;
+
+        for (NotificationEventHandler<?> handler : handlers) {
+            Registration<?> previous = registrations.putIfAbsent(handler.stream(), register(handler, objectMapper));
+            if (previous != null) {
+                throw new IllegalStateException("Stream '" + handler.stream() + "' is handled by both "
+                        + previous.handler().getClass().getSimpleName() + " and " + handler.getClass().getSimpleName());
+            }
+        }
+        this.streamKeys = List.copyOf(registrations.keySet());
+        log.info("Registered event handlers for streams: {}", streamKeys);
+    }
+
+    private static <T> Registration<T> register(NotificationEventHandler<T> handler, ObjectMapper objectMapper) {
+        return new Registration<>(handler, objectMapper.readerFor(handler.payloadType()));
+    }
+
+    public List<String> getStreamKeys() {
+        return streamKeys;
+    }
+
+    public Registration<?> forStream(String streamKey) {
+        Registration<?> registration = registrations.get(streamKey);
+        if (registration == null) {
+            throw new AppException(ErrorCode.INTERNAL_SERVER_ERROR, "Unknown stream: " + streamKey);
+        }
+        return registration;
+    }
+
+    /**
+     * Configured concurrency first, then the handler's own, then the default.
+     */
+    public int concurrencyFor(String streamKey) {
+        Integer configured = properties.settingsFor(streamKey).getConcurrency();
+        if (configured != null && configured > 0) {
+            return configured;
+        }
+        Registration<?> registration = registrations.get(streamKey);
+        if (registration != null && registration.handler().concurrency() > 0) {
+            return registration.handler().concurrency();
+        }
+        return properties.getDefaultConcurrency();
+    }
+
+    public record Registration<T>(NotificationEventHandler<T> handler, ObjectReader reader) {
+
+        public T read(String payload) throws IOException {
+            return reader.readValue(payload);
+        }
+    }
+}
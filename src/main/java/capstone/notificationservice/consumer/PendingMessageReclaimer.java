@@ -0,0 +1,143 @@
+package capstone.notificationservice.consumer;
+
+import capstone.notificationservice.config.StreamConsumerProperties;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.RedisStreamCommands.XClaimOptions;
+import org.springframework.data.redis.connection.stream.Consumer;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.PendingMessage;
+import org.springframework.data.redis.connection.stream.PendingMessages;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamInfo;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Moves pending entries that have been idle for too long (typically owned by a replica
+ * that crashed or was scaled down) to this replica, and removes consumers that have been
+ * idle past the stale threshold and no longer own any pending entry. Slow entries this replica
+ * is still handling are never claimed back.
+ * <p>
+ * Claimed entries are handed to the stream workers from a dedicated thread. Dispatching blocks
+ * while a stream's workers are busy, and doing that on the shared scheduler would hold up ack
+ * flushing, retries and lease renewal behind a large reclaim.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PendingMessageReclaimer {
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final RedisStreamConsumer redisStreamConsumer;
+    private final ConsumerIdentity consumerIdentity;
+    private final StreamConsumerProperties properties;
+    private final InFlightRecords inFlightRecords;
+    private final ExecutorService handoff = Executors.newSingleThreadExecutor(
+            Thread.ofPlatform().name("stream-reclaim-handoff").daemon(true).factory());
+
+    @Scheduled(initialDelayString = "${app.stream.reclaim.interval-ms:30000}",
+            fixedDelayString = "${app.stream.reclaim.interval-ms:30000}")
+    public void reclaim() {
+        if (!properties.getReclaim().isEnabled()) {
+            return;
+        }
+
+        redisStreamConsumer.getStreamKeys().forEach(streamKey -> {
+            try {
+                claimIdleEntries(streamKey);
+                pruneStaleConsumers(streamKey);
+            } catch (Exception e) {
+                log.error("Failed to reclaim pending entries for stream '{}'", streamKey, e);
+            }
+        });
+    }
+
+    /**
+     * Pages through the whole PEL by ID. Entries this replica is still working on are skipped,
+     * however long they have been idle.
+     */
+    private void claimIdleEntries(String streamKey) {
+        StreamConsumerProperties.Reclaim reclaim = properties.getReclaim();
+        String self = consumerIdentity.getConsumerName();
+
+        Range<String> range = Range.unbounded();
+        while (true) {
+            PendingMessages pending = redisTemplate.opsForStream()
+                    .pending(streamKey, properties.getGroup(), range, reclaim.getBatchSize());
+            if (pending.isEmpty()) {
+                return;
+            }
+
+            RecordId[] idleIds = pending.stream()
+                    .filter(message -> message.getElapsedTimeSinceLastDelivery().compareTo(reclaim.getMinIdle()) >= 0)
+                    .filter(message -> !(self.equals(message.getConsumerName())
+                            && inFlightRecords.contains(streamKey, message.getId())))
+                    .map(PendingMessage::getId)
+                    .toArray(RecordId[]::new);
+
+            if (idleIds.length > 0) {
+                List<MapRecord<String, Object, Object>> claimed = redisTemplate.opsForStream().claim(
+                        streamKey,
+                        properties.getGroup(),
+                        self,
+                        XClaimOptions.minIdle(reclaim.getMinIdle()).ids(idleIds));
+
+                log.info("Reclaimed {} idle pending entries on stream '{}'", claimed.size(), streamKey);
+
+                claimed.forEach(record -> handOff(streamKey, RedisStreamConsumer.toStringRecord(record)));
+            }
+
+            if (pending.size() < reclaim.getBatchSize()) {
+                return;
+            }
+            // continue right after the last entry of this page
+            RecordId last = pending.get(pending.size() - 1).getId();
+            range = Range.rightUnbounded(Range.Bound.inclusive(RecordId.of(last.getTimestamp(), last.getSequence() + 1).getValue()));
+        }
+    }
+
+    private void handOff(String streamKey, MapRecord<String, String, String> record) {
+        // in flight from now on, so the next run does not claim it again while it waits here
+        inFlightRecords.add(streamKey, record.getId());
+        try {
+            handoff.execute(() -> redisStreamConsumer.onMessage(record));
+        } catch (RejectedExecutionException e) {
+            inFlightRecords.remove(streamKey, record.getId());
+            log.warn("Shutting down, leaving reclaimed entry {} pending on stream '{}'", record.getId(), streamKey);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // entries still queued here stay in the PEL and are reclaimed after the restart
+        handoff.shutdownNow();
+    }
+
+    private void pruneStaleConsumers(String streamKey) {
+        long staleAfterMs = properties.getReclaim().getStaleConsumerAfter().toMillis();
+
+        StreamInfo.XInfoConsumers consumers = redisTemplate.opsForStream()
+                .consumers(streamKey, properties.getGroup());
+
+        consumers.forEach(consumer -> {
+            if (consumer.consumerName().equals(consumerIdentity.getConsumerName())
+                    || consumer.pendingCount() > 0
+                    || consumer.idleTimeMs() < staleAfterMs) {
+                return;
+            }
+
+            redisTemplate.opsForStream()
+                    .deleteConsumer(streamKey, Consumer.from(properties.getGroup(), consumer.consumerName()));
+            log.info("Removed stale consumer '{}' from stream '{}'", consumer.consumerName(), streamKey);
+        });
+    }
+}
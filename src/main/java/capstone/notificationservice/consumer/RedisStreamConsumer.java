@@ -1,22 +1,21 @@
 package capstone.notificationservice.consumer;
 
-import capstone.notificationservice.enums.NotificationType;
-import capstone.notificationservice.event.OrderConfirmEvent;
-import capstone.notificationservice.event.OtpEvent;
-import capstone.notificationservice.event.WelcomeEvent;
-import capstone.notificationservice.exception.AppException;
-import capstone.notificationservice.exception.ErrorCode;
-import capstone.notificationservice.service.EmailService;
-import capstone.notificationservice.service.NotificationService;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import capstone.notificationservice.config.StreamConsumerProperties;
+import capstone.notificationservice.handler.BatchNotificationEventHandler;
+import capstone.notificationservice.handler.NotificationEventHandler;
+import capstone.notificationservice.handler.StreamEvent;
+import capstone.notificationservice.metrics.PipelineMetrics;
+import capstone.notificationservice.metrics.StreamTracing;
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.redis.connection.stream.Consumer;
 import org.springframework.data.redis.connection.stream.MapRecord;
 import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.RecordId;
 import org.springframework.data.redis.connection.stream.StreamOffset;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.stream.StreamListener;
@@ -24,7 +23,11 @@ import org.springframework.data.redis.stream.StreamMessageListenerContainer;
 import org.springframework.data.redis.stream.Subscription;
 import org.springframework.stereotype.Service;
 
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -35,137 +38,306 @@ public class RedisStreamConsumer implements StreamListener<String, MapRecord<Str
 
     private final StreamMessageListenerContainer<String, MapRecord<String, String, String>> listenerContainer;
     private final RedisTemplate<String, Object> redisTemplate;
-    private final EmailService emailService;
-    private final NotificationService notificationService;
-    private final ObjectMapper objectMapper = new ObjectMapper();
-
-    @Value("${app.logo}")
-    private String logo;
-    private static final List<String> LIST_STREAM_KEY = List.of(
-            "forgot-password-otp",
-            "welcome-signup",
-            "order-confirm"
-    );
-    private static final String CONSUMER_GROUP = "notification-service-group";
-    private static final String CONSUMER_NAME = "notification-1";
+    private final NotificationEventRegistry eventRegistry;
+    private final StreamDispatcher streamDispatcher;
+    private final AckAccumulator ackAccumulator;
+    private final StreamBatchPoller streamBatchPoller;
+    private final RetryScheduler retryScheduler;
+    private final ConsumerIdentity consumerIdentity;
+    private final StreamConsumerProperties properties;
+    private final PipelineMetrics pipelineMetrics;
+    private final StreamTracing streamTracing;
+    private final IdempotencyGuard idempotencyGuard;
+    private final InFlightRecords inFlightRecords;
 
     private final List<Subscription> subscriptions = new ArrayList<>();
 
+    public List<String> getStreamKeys() {
+        return eventRegistry.getStreamKeys();
+    }
+
     @PostConstruct
     public void init() {
-        LIST_STREAM_KEY.forEach(streamKey -> {
+        String group = properties.getGroup();
+        String consumerName = consumerIdentity.getConsumerName();
+
+        List<String> streamKeys = eventRegistry.getStreamKeys();
+
+        streamKeys.forEach(streamKey -> {
             try {
-                redisTemplate.opsForStream().createGroup(streamKey, CONSUMER_GROUP);
-                log.info("Created consumer group '{}' for stream '{}'", CONSUMER_GROUP, streamKey);
+                redisTemplate.opsForStream().createGroup(streamKey, group);
+                log.info("Created consumer group '{}' for stream '{}'", group, streamKey);
             } catch (Exception e) {
-                log.info("Consumer group '{}' already exists for stream '{}'", CONSUMER_GROUP, streamKey);
+                log.info("Consumer group '{}' already exists for stream '{}'", group, streamKey);
             }
         });
 
-        LIST_STREAM_KEY.forEach(streamKey -> {
+        streamKeys.forEach(streamKey -> {
+
+            if (properties.settingsFor(streamKey).isBatch()) {
+                streamBatchPoller.start(streamKey, records -> dispatchTracked(streamKey, records,
+                        () -> processBatch(streamKey, records)));
+                return;
+            }
 
             Subscription sub = listenerContainer.receive(
-                    Consumer.from(CONSUMER_GROUP, CONSUMER_NAME),
+                    Consumer.from(group, consumerName),
                     StreamOffset.create(streamKey, ReadOffset.lastConsumed()),
                     this);
 
             subscriptions.add(sub);
 
-            log.info("Subscribed consumer '{}' to stream '{}'", CONSUMER_NAME, streamKey);
+            log.info("Subscribed consumer '{}' to stream '{}'", consumerName, streamKey);
         });
 
         listenerContainer.start();
-        log.info("Redis Stream consumer started for all streams: {}", LIST_STREAM_KEY);
+        log.info("Redis Stream consumer started for all streams: {}", streamKeys);
     }
 
     @Override
     public void onMessage(MapRecord<String, String, String> message) {
+        dispatchTracked(message.getRequiredStream(), List.of(message), () -> process(message));
+    }
+
+    /**
+     * Marks the records in flight until the task finished, so the reclaimer does not take them
+     * back from this replica while they wait for or occupy a worker.
+     */
+    private void dispatchTracked(String streamKey, List<MapRecord<String, String, String>> records, Runnable task) {
+        records.forEach(record -> inFlightRecords.add(streamKey, record.getId()));
+        Runnable untrack = () -> records.forEach(record -> inFlightRecords.remove(streamKey, record.getId()));
+
+        boolean dispatched = false;
         try {
-            String messageId = message.getId().getValue();
-            Map<String, String> body = message.getValue();
+            dispatched = streamDispatcher.dispatch(streamKey, () -> {
+                try {
+                    task.run();
+                } finally {
+                    untrack.run();
+                }
+            });
+        } finally {
+            if (!dispatched) {
+                untrack.run();
+            }
+        }
+    }
 
-            String payload = body.get("payload");
+    private void process(MapRecord<String, String, String> message) {
+        String messageId = message.getId().getValue();
+        String stream = message.getRequiredStream();
+        long start = System.nanoTime();
+        pipelineMetrics.recordStreamWait(stream, message.getId());
 
-            log.info("Received message [ID: {}]: {}", messageId, payload);
+        if (!claim(message)) {
+            return;
+        }
 
-            filterMessage(payload, message.getRequiredStream());
+        Span span = streamTracing.startConsumerSpan(message);
+        try (Tracer.SpanInScope ignored = streamTracing.inScope(span)) {
+            String payload = message.getValue().get(RetryScheduler.PAYLOAD_FIELD);
 
-            redisTemplate.opsForStream()
-                    .acknowledge(message.getRequiredStream(), CONSUMER_GROUP, messageId);
+            log.info("Received message [ID: {}]: {}", messageId, payload);
 
-            log.info("Message acknowledged: {}", messageId);
+            handle(eventRegistry.forStream(stream), payload, originalIdOf(message), originOf(message));
+            complete(message);
+            pipelineMetrics.recordHandler(stream, PipelineMetrics.SUCCESS, start);
 
         } catch (Exception e) {
-            log.error("Error processing message", e);
+            span.error(e);
+            fail(message, e);
+            pipelineMetrics.recordHandler(stream, PipelineMetrics.FAILURE, start);
+        } finally {
+            span.end();
         }
     }
 
-    private void filterMessage(String payload, String stream) {
-        log.info("Processing: {}", payload);
+    private void processBatch(String streamKey, List<MapRecord<String, String, String>> records) {
+        log.info("Received batch of {} message(s) from stream '{}'", records.size(), streamKey);
 
-        switch (stream) {
-            case "forgot-password-otp" -> handleForgotPasswordOtp(payload);
-            case "welcome-signup" -> handleWelcomeSignup(payload);
-            case "order-confirm" -> handleOrderConfirm(payload);
-            default -> throw new AppException(ErrorCode.INTERNAL_SERVER_ERROR, "Unknown stream: " + stream);
+        NotificationEventRegistry.Registration<?> registration = eventRegistry.forStream(streamKey);
+        if (!(registration.handler() instanceof BatchNotificationEventHandler<?>)) {
+            records.forEach(this::process);
+            return;
         }
+
+        handleBatch(registration, streamKey, records.stream().filter(this::claim).toList());
     }
 
-    private void handleOrderConfirm(String payload) {
-        try {
-            OrderConfirmEvent orderConfirmEvent = objectMapper.readValue(payload, OrderConfirmEvent.class);
-            log.info("Processing order confirm for email: {}", orderConfirmEvent.getEmail());
+    /**
+     * Takes the idempotency lease for a record. Records already handled are acknowledged and
+     * skipped; records another worker is handling stay pending until its lease ends.
+     */
+    private boolean claim(MapRecord<String, String, String> message) {
+        String key = idempotencyGuard.keyFor(message);
+        switch (idempotencyGuard.acquire(key)) {
+            case DUPLICATE -> {
+                ackAccumulator.add(message.getRequiredStream(), message.getId().getValue());
+                pipelineMetrics.outcome(message.getRequiredStream(), PipelineMetrics.DUPLICATE, null);
+                log.info("Skipping already handled message [ID: {}] ({})", message.getId().getValue(), key);
+                return false;
+            }
+            case IN_PROGRESS -> {
+                log.info("Message [ID: {}] is being handled elsewhere ({}), leaving it pending", message.getId().getValue(), key);
+                return false;
+            }
+            default -> {
+                return true;
+            }
+        }
+    }
 
-            emailService.sendOrderConfirmEmail(orderConfirmEvent);
-            log.info("order confirm email sent successfully for: {}", orderConfirmEvent.getEmail());
+    private void complete(MapRecord<String, String, String> message) {
+        idempotencyGuard.markDone(idempotencyGuard.keyFor(message));
+        ackAccumulator.add(message.getRequiredStream(), message.getId().getValue());
+        pipelineMetrics.outcome(message.getRequiredStream(), PipelineMetrics.SUCCESS, null);
+        log.info("Message queued for acknowledgement: {}", message.getId().getValue());
+    }
 
+    private void fail(MapRecord<String, String, String> message, Exception cause) {
+        // the retry is a new entry under the same key, give the lease back so it can be taken
+        idempotencyGuard.release(idempotencyGuard.keyFor(message));
+        try {
+            retryScheduler.handleFailure(message, cause);
+            ackAccumulator.add(message.getRequiredStream(), message.getId().getValue());
         } catch (Exception e) {
-            log.error("Error processing OTP event", e);
+            log.error("Could not schedule retry for message [ID: {}], leaving it pending", message.getId().getValue(), e);
         }
     }
 
-    private void handleForgotPasswordOtp(String payload) {
-        try {
-            OtpEvent otpEvent = objectMapper.readValue(payload, OtpEvent.class);
-            log.info("Processing OTP event for email: {}", otpEvent.getEmail());
+    static MapRecord<String, String, String> toStringRecord(MapRecord<String, Object, Object> record) {
+        Map<String, String> body = new LinkedHashMap<>();
+        record.getValue().forEach((key, value) -> body.put(String.valueOf(key), String.valueOf(value)));
+        return MapRecord.create(record.getRequiredStream(), body).withId(record.getId());
+    }
+
+    /**
+     * ID the event got when it first entered its stream, kept across retries.
+     */
+    private RecordId originalIdOf(MapRecord<String, String, String> message) {
+        String originalId = message.getValue().get(RetryScheduler.ORIGINAL_ID_FIELD);
+        return originalId != null ? RecordId.of(originalId) : message.getId();
+    }
+
+    /**
+     * Time the event first entered its stream, kept across retries through the original record ID.
+     */
+    private Instant originOf(MapRecord<String, String, String> message) {
+        RecordId recordId = originalIdOf(message);
+        return recordId.shouldBeAutoGenerated() ? Instant.now() : Instant.ofEpochMilli(recordId.getTimestamp());
+    }
+
+    private <T> void handle(NotificationEventRegistry.Registration<T> registration, String payload,
+                            RecordId eventId, Instant origin) throws Exception {
+        log.info("Processing: {}", payload);
 
-            emailService.sendOtpEmail(otpEvent.getEmail(), otpEvent.getOtpCode());
-            log.info("OTP email sent successfully for: {}", otpEvent.getEmail());
+        NotificationEventHandler<T> handler = registration.handler();
+        T event = pipelineMetrics.time(PipelineMetrics.DESERIALIZE, handler.type(), () -> registration.read(payload));
+        handler.handle(new StreamEvent<>(event, eventId, origin));
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> void handleBatch(NotificationEventRegistry.Registration<T> registration, String streamKey,
+                                 List<MapRecord<String, String, String>> records) {
+        BatchNotificationEventHandler<T> handler = (BatchNotificationEventHandler<T>) registration.handler();
+        // events are matched back to their records by identity, payloads may compare equal
+        Map<StreamEvent<T>, TracedRecord> recordsByEvent = Collections.synchronizedMap(new IdentityHashMap<>());
+        List<StreamEvent<T>> events = new ArrayList<>(records.size());
+        List<Span> recordSpans = new ArrayList<>(records.size());
+
+        for (MapRecord<String, String, String> record : records) {
+            pipelineMetrics.recordStreamWait(streamKey, record.getId());
+            // ends once the handler reports the record, so it covers the whole send
+            Span span = streamTracing.startConsumerSpan(record);
+            try {
+                String payload = record.getValue().get(RetryScheduler.PAYLOAD_FIELD);
+                T event = pipelineMetrics.time(PipelineMetrics.DESERIALIZE, handler.type(), () -> registration.read(payload));
+                StreamEvent<T> streamEvent = new StreamEvent<>(event, originalIdOf(record), originOf(record));
+                recordsByEvent.put(streamEvent, new TracedRecord(record, span));
+                events.add(streamEvent);
+                recordSpans.add(span);
+            } catch (Exception e) {
+                new TracedRecord(record, span).fail(e);
+            }
+        }
 
+        Exception batchFailure = null;
+        Span batchSpan = streamTracing.startBatchSpan(streamKey, recordSpans);
+        try (Tracer.SpanInScope ignored = streamTracing.inScope(batchSpan)) {
+            handler.handleBatch(events, new BatchNotificationEventHandler.BatchOutcome<>() {
+                @Override
+                public void succeeded(StreamEvent<T> event) {
+                    TracedRecord traced = recordsByEvent.remove(event);
+                    if (traced != null) {
+                        traced.complete();
+                    }
+                }
+
+                @Override
+                public void failed(StreamEvent<T> event, Exception cause) {
+                    TracedRecord traced = recordsByEvent.remove(event);
+                    if (traced != null) {
+                        traced.fail(cause);
+                    }
+                }
+            });
         } catch (Exception e) {
-            log.error("Error processing OTP event", e);
+            log.error("Batch handler for stream '{}' failed, failing {} unreported event(s)", streamKey, recordsByEvent.size(), e);
+            batchSpan.error(e);
+            batchFailure = e;
+        } finally {
+            batchSpan.end();
         }
+
+        // events the handler never reported would otherwise sit pending with their leases held
+        Exception cause = batchFailure != null ? batchFailure
+                : new IllegalStateException("Batch handler for stream '" + streamKey + "' did not report the event");
+        List<TracedRecord> unreported;
+        synchronized (recordsByEvent) {
+            unreported = List.copyOf(recordsByEvent.values());
+            recordsByEvent.clear();
+        }
+        unreported.forEach(traced -> traced.fail(cause));
     }
 
-    private void handleWelcomeSignup(String payload) {
-        try {
-            WelcomeEvent welcomeEvent = objectMapper.readValue(payload, WelcomeEvent.class);
-            log.info("Processing Welcome event for email: {}", welcomeEvent.getEmail());
-
-            emailService.sendWelcomeEmail(
-                    welcomeEvent.getEmail(),
-                    welcomeEvent.getFullName(),
-                    welcomeEvent.getUsername());
-            log.info("Welcome email sent successfully for: {}", welcomeEvent.getEmail());
-
-            notificationService.createAndSendNotification(
-                    welcomeEvent.getUserId(),
-                    "Chào mừng đến với EvoTicket!",
-                    "Xin chào " + welcomeEvent.getFullName()
-                            + "! Tài khoản của bạn đã được tạo thành công. Chúc bạn có trải nghiệm tuyệt vời!",
-                    NotificationType.WELCOME,
-                    logo
-            );
+    /**
+     * A batch record with its consumer span, which is ended together with the record's outcome.
+     */
+    private class TracedRecord {
 
-        } catch (Exception e) {
-            log.error("Error processing Welcome event", e);
+        private final MapRecord<String, String, String> record;
+        private final Span span;
+
+        TracedRecord(MapRecord<String, String, String> record, Span span) {
+            this.record = record;
+            this.span = span;
+        }
+
+        void complete() {
+            try {
+                RedisStreamConsumer.this.complete(record);
+            } finally {
+                span.end();
+            }
+        }
+
+        void fail(Exception cause) {
+            span.error(cause);
+            try {
+                RedisStreamConsumer.this.fail(record, cause);
+            } finally {
+                span.end();
+            }
         }
     }
 
     @PreDestroy
     public void destroy() {
         subscriptions.forEach(Subscription::cancel);
+        streamBatchPoller.stop();
         listenerContainer.stop();
+        streamDispatcher.shutdown();
+        ackAccumulator.flushAll();
         log.info("Redis Stream consumer stopped");
     }
 }
\ No newline at end of file
@@ -0,0 +1,165 @@
+package capstone.notificationservice.consumer;
+
+import capstone.notificationservice.config.StreamConsumerProperties;
+import capstone.notificationservice.config.StreamConsumerProperties.RetryPolicy;
+import capstone.notificationservice.metrics.PipelineMetrics;
+import capstone.notificationservice.metrics.StreamTracing;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Schedules failed records for another attempt through a Redis sorted set keyed by due time,
+ * so no worker thread ever sleeps through a backoff. Due entries are put back on their
+ * original stream with an incremented attempt counter; once a stream's retry policy is
+ * exhausted the record is moved to {@code <stream>.dlq} together with the failure details.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RetryScheduler {
+
+    public static final String PAYLOAD_FIELD = "payload";
+    public static final String ATTEMPT_FIELD = "attempt";
+    public static final String ORIGINAL_ID_FIELD = "originalId";
+    public static final String LAST_ERROR_FIELD = "lastError";
+
+    /**
+     * Failure details added to a dead-lettered record; a replay strips them and keeps the rest.
+     */
+    public static final Set<String> DEAD_LETTER_FIELDS =
+            Set.of("originalStream", "attempts", "errorType", "error", "failedAt", "consumer");
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final StreamConsumerProperties properties;
+    private final ConsumerIdentity consumerIdentity;
+    private final PipelineMetrics pipelineMetrics;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    public void handleFailure(MapRecord<String, String, String> record, Exception cause) {
+        String streamKey = record.getRequiredStream();
+        Map<String, String> body = record.getValue();
+        int attempts = Integer.parseInt(body.getOrDefault(ATTEMPT_FIELD, "0")) + 1;
+        String originalId = body.getOrDefault(ORIGINAL_ID_FIELD, record.getId().getValue());
+        RetryPolicy policy = properties.retryPolicyFor(streamKey);
+
+        String traceParent = body.get(StreamTracing.TRACE_PARENT_FIELD);
+
+        if (cause instanceof JsonProcessingException || attempts >= policy.getMaxAttempts()) {
+            deadLetter(streamKey, originalId, body.get(PAYLOAD_FIELD), traceParent, attempts, cause);
+            pipelineMetrics.outcome(streamKey, PipelineMetrics.DEAD_LETTER, cause);
+            return;
+        }
+
+        long delayMs = backoffWithJitter(policy, attempts);
+        RetryEntry entry = new RetryEntry(streamKey, originalId, body.get(PAYLOAD_FIELD), attempts, describe(cause), traceParent);
+
+        try {
+            redisTemplate.opsForZSet().add(
+                    properties.getRetry().getQueueKey(),
+                    objectMapper.writeValueAsString(entry),
+                    System.currentTimeMillis() + delayMs);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize retry entry for record " + originalId, e);
+        }
+        pipelineMetrics.outcome(streamKey, PipelineMetrics.RETRY, cause);
+
+        log.warn("Record {} on stream '{}' failed (attempt {}/{}), retrying in {} ms: {}",
+                originalId, streamKey, attempts, policy.getMaxAttempts(), delayMs, cause.getMessage());
+    }
+
+    @Scheduled(fixedDelayString = "${app.stream.retry.poll-interval-ms:1000}")
+    public void releaseDueRetries() {
+        StreamConsumerProperties.Retry retry = properties.getRetry();
+
+        Set<Object> due = redisTemplate.opsForZSet()
+                .rangeByScore(retry.getQueueKey(), 0, System.currentTimeMillis(), 0, retry.getBatchSize());
+
+        if (due == null || due.isEmpty()) {
+            return;
+        }
+
+        for (Object member : due) {
+            // ZREM decides ownership when several replicas poll the same queue
+            Long removed = redisTemplate.opsForZSet().remove(retry.getQueueKey(), member);
+            if (removed == null || removed == 0) {
+                continue;
+            }
+
+            try {
+                RetryEntry entry = objectMapper.readValue(String.valueOf(member), RetryEntry.class);
+                redeliver(entry);
+            } catch (Exception e) {
+                log.error("Failed to release retry entry, putting it back: {}", member, e);
+                redisTemplate.opsForZSet().add(retry.getQueueKey(), member, System.currentTimeMillis() + 1000);
+            }
+        }
+    }
+
+    public String deadLetterKey(String streamKey) {
+        return streamKey + properties.getRetry().getDeadLetterSuffix();
+    }
+
+    private void redeliver(RetryEntry entry) {
+        Map<String, String> body = new LinkedHashMap<>();
+        body.put(PAYLOAD_FIELD, entry.payload());
+        body.put(ATTEMPT_FIELD, String.valueOf(entry.attempts()));
+        body.put(ORIGINAL_ID_FIELD, entry.originalId());
+        body.put(LAST_ERROR_FIELD, entry.lastError());
+        if (entry.traceParent() != null) {
+            body.put(StreamTracing.TRACE_PARENT_FIELD, entry.traceParent());
+        }
+
+        redisTemplate.opsForStream().add(entry.stream(), body);
+        log.info("Redelivered record {} to stream '{}' for attempt {}", entry.originalId(), entry.stream(), entry.attempts() + 1);
+    }
+
+    private void deadLetter(String streamKey, String originalId, String payload, String traceParent,
+                            int attempts, Exception cause) {
+        Map<String, String> body = new LinkedHashMap<>();
+        body.put(PAYLOAD_FIELD, payload);
+        if (traceParent != null) {
+            body.put(StreamTracing.TRACE_PARENT_FIELD, traceParent);
+        }
+        body.put("originalStream", streamKey);
+        body.put(ORIGINAL_ID_FIELD, originalId);
+        body.put("attempts", String.valueOf(attempts));
+        body.put("errorType", cause.getClass().getName());
+        body.put("error", describe(cause));
+        body.put("failedAt", Instant.now().toString());
+        body.put("consumer", consumerIdentity.getConsumerName());
+
+        redisTemplate.opsForStream().add(deadLetterKey(streamKey), body);
+        log.error("Record {} on stream '{}' moved to dead-letter stream after {} attempt(s)",
+                originalId, streamKey, attempts, cause);
+    }
+
+    private long backoffWithJitter(RetryPolicy policy, int attempts) {
+        double exponential = policy.getInitialBackoff().toMillis() * Math.pow(policy.getMultiplier(), attempts - 1);
+        long capped = (long) Math.min(exponential, policy.getMaxBackoff().toMillis());
+        long half = Math.max(1, capped / 2);
+        return half + ThreadLocalRandom.current().nextLong(half);
+    }
+
+    private String describe(Exception cause) {
+        Throwable root = cause;
+        while (root.getCause() != null && root.getCause() != root) {
+            root = root.getCause();
+        }
+        return root.getMessage() != null ? root.getMessage() : root.getClass().getSimpleName();
+    }
+
+    private record RetryEntry(String stream, String originalId, String payload, int attempts, String lastError,
+                              String traceParent) {}
+}
@@ -0,0 +1,94 @@
+package capstone.notificationservice.consumer;
+
+import capstone.notificationservice.config.StreamConsumerProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.stream.Consumer;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamReadOptions;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Reads whole XREADGROUP batches for streams running in batch mode and hands each
+ * polled batch to the listener as one unit. The listener container only delivers
+ * records one at a time, so batch streams are polled here instead.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StreamBatchPoller {
+
+    private static final long ERROR_BACKOFF_MS = 1000;
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final StreamConsumerProperties properties;
+    private final ConsumerIdentity consumerIdentity;
+    private final Map<String, Thread> pollers = new ConcurrentHashMap<>();
+    private volatile boolean running = true;
+
+    public void start(String streamKey, java.util.function.Consumer<List<MapRecord<String, String, String>>> batchListener) {
+        Thread poller = Thread.ofPlatform()
+                .name("stream-batch-poller-" + streamKey)
+                .daemon(true)
+                .unstarted(() -> poll(streamKey, batchListener));
+
+        pollers.put(streamKey, poller);
+        poller.start();
+        log.info("Started batch poller for stream '{}' (batch size {})", streamKey, properties.getBatchSize());
+    }
+
+    public void stop() {
+        running = false;
+        long joinTimeoutMs = properties.getPollTimeout().toMillis() + ERROR_BACKOFF_MS;
+        pollers.forEach((streamKey, poller) -> {
+            try {
+                poller.join(joinTimeoutMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        log.info("Batch pollers stopped");
+    }
+
+    private void poll(String streamKey, java.util.function.Consumer<List<MapRecord<String, String, String>>> batchListener) {
+        Consumer consumer = Consumer.from(properties.getGroup(), consumerIdentity.getConsumerName());
+        StreamReadOptions readOptions = StreamReadOptions.empty()
+                .count(properties.getBatchSize())
+                .block(properties.getPollTimeout());
+
+        while (running) {
+            try {
+                List<MapRecord<String, Object, Object>> records = redisTemplate.opsForStream()
+                        .read(consumer, readOptions, StreamOffset.create(streamKey, ReadOffset.lastConsumed()));
+
+                if (records != null && !records.isEmpty()) {
+                    batchListener.accept(records.stream()
+                            .map(RedisStreamConsumer::toStringRecord)
+                            .toList());
+                }
+            } catch (Exception e) {
+                if (!running) {
+                    break;
+                }
+                log.error("Error polling batch from stream '{}'", streamKey, e);
+                sleepQuietly();
+            }
+        }
+    }
+
+    private void sleepQuietly() {
+        try {
+            Thread.sleep(ERROR_BACKOFF_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+}
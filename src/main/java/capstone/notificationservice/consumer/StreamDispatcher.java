@@ -0,0 +1,115 @@
+package capstone.notificationservice.consumer;
+
+import capstone.notificationservice.config.StreamConsumerProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hands stream records to a bounded worker pool per stream so a slow stream cannot
+ * starve the others. When a pool has no free permit the calling poll thread blocks,
+ * which stops the listener container from reading more records for that stream.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StreamDispatcher {
+
+    private final StreamConsumerProperties properties;
+    private final NotificationEventRegistry eventRegistry;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, WorkerPool> pools = new ConcurrentHashMap<>();
+
+    /**
+     * @return false when interrupted before a worker was free; the task did not run
+     */
+    public boolean dispatch(String streamKey, Runnable task) {
+        WorkerPool pool = pools.computeIfAbsent(streamKey, this::createPool);
+
+        try {
+            pool.permits().acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Interrupted while waiting for a worker on stream '{}', record left pending", streamKey);
+            return false;
+        }
+
+        try {
+            pool.executor().execute(() -> {
+                try {
+                    task.run();
+                } finally {
+                    pool.permits().release();
+                }
+            });
+            return true;
+        } catch (RuntimeException e) {
+            pool.permits().release();
+            throw e;
+        }
+    }
+
+    public int inFlight(String streamKey) {
+        WorkerPool pool = pools.get(streamKey);
+        return pool == null ? 0 : pool.concurrency() - pool.permits().availablePermits();
+    }
+
+    public void shutdown() {
+        pools.values().forEach(pool -> pool.executor().shutdown());
+
+        long deadline = System.nanoTime() + properties.getDrainTimeout().toNanos();
+        pools.forEach((streamKey, pool) -> {
+            try {
+                long remaining = Math.max(0, deadline - System.nanoTime());
+                if (!pool.executor().awaitTermination(remaining, TimeUnit.NANOSECONDS)) {
+                    log.warn("Worker pool for stream '{}' did not drain in time, {} record(s) still running",
+                            streamKey, inFlight(streamKey));
+                    pool.executor().shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                pool.executor().shutdownNow();
+            }
+        });
+        log.info("Stream worker pools stopped");
+    }
+
+    private WorkerPool createPool(String streamKey) {
+        int concurrency = eventRegistry.concurrencyFor(streamKey);
+        String prefix = "stream-" + streamKey + "-";
+
+        ThreadFactory threadFactory = properties.isVirtualThreads()
+                ? Thread.ofVirtual().name(prefix, 0).factory()
+                : Thread.ofPlatform().name(prefix, 0).daemon(true).factory();
+
+        ExecutorService executor = properties.isVirtualThreads()
+                ? Executors.newThreadPerTaskExecutor(threadFactory)
+                : Executors.newFixedThreadPool(concurrency, threadFactory);
+
+        WorkerPool pool = new WorkerPool(concurrency, new Semaphore(concurrency), executor);
+        Gauge.builder("notification.stream.workers.busy", pool, p -> p.concurrency() - p.permits().availablePermits())
+                .description("Records of the stream being handled right now")
+                .tag("stream", streamKey)
+                .register(meterRegistry);
+        Gauge.builder("notification.stream.workers.waiting", pool, p -> p.permits().getQueueLength())
+                .description("Poll threads blocked waiting for a free worker")
+                .tag("stream", streamKey)
+                .register(meterRegistry);
+
+        log.info("Created worker pool for stream '{}' with concurrency {} (virtual threads: {})",
+                streamKey, concurrency, properties.isVirtualThreads());
+        return pool;
+    }
+
+    private record WorkerPool(int concurrency, Semaphore permits, ExecutorService executor) {}
+}
@@ -0,0 +1,130 @@
+package capstone.notificationservice.consumer;
+
+import capstone.notificationservice.config.StreamConsumerProperties;
+import capstone.notificationservice.metrics.StreamLagMonitor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps the input streams bounded. Every run trims each stream with XTRIM MINID up to the oldest
+ * entry still needed by any consumer group (its oldest pending entry, or its last delivered one
+ * when nothing is pending), minus a safety margin. Retries and dead letters carry their own
+ * payload, so trimmed entries are never read again.
+ * <p>
+ * Group state comes from the latest {@link StreamLagMonitor} sample, which also publishes the
+ * length, memory and backlog gauges; the same sample drives a warning when the backlog of this
+ * service's group keeps growing.
+ */
+@Slf4j
+@Component
+public class StreamHousekeeper {
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final RedisStreamConsumer redisStreamConsumer;
+    private final StreamLagMonitor streamLagMonitor;
+    private final StreamConsumerProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, BacklogTrend> trends = new ConcurrentHashMap<>();
+
+    public StreamHousekeeper(RedisTemplate<String, Object> redisTemplate,
+                             RedisStreamConsumer redisStreamConsumer,
+                             StreamLagMonitor streamLagMonitor,
+                             StreamConsumerProperties properties,
+                             MeterRegistry meterRegistry) {
+        this.redisTemplate = redisTemplate;
+        this.redisStreamConsumer = redisStreamConsumer;
+        this.streamLagMonitor = streamLagMonitor;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Scheduled(initialDelayString = "${app.stream.housekeeping.interval-ms:60000}",
+            fixedDelayString = "${app.stream.housekeeping.interval-ms:60000}")
+    public void run() {
+        if (!properties.getHousekeeping().isEnabled()) {
+            return;
+        }
+
+        // a sample older than two runs means the monitor is failing, do not trim on stale data
+        Instant freshAfter = Instant.now().minus(Duration.ofMillis(2 * properties.getHousekeeping().getIntervalMs()));
+        for (String stream : redisStreamConsumer.getStreamKeys()) {
+            streamLagMonitor.latest(stream)
+                    .filter(sample -> sample.sampledAt().isAfter(freshAfter))
+                    .ifPresent(sample -> {
+                        try {
+                            if (sample.oldestNeeded() != null) {
+                                trim(stream, sample.oldestNeeded());
+                            }
+                            trends.computeIfAbsent(stream, key -> new BacklogTrend()).sample(stream, sample.backlog());
+                        } catch (Exception e) {
+                            log.warn("Housekeeping of stream '{}' failed: {}", stream, e.getMessage());
+                        }
+                    });
+        }
+    }
+
+    private void trim(String stream, RecordId oldestNeeded) {
+        long minTimestamp = oldestNeeded.getTimestamp() - properties.getHousekeeping().getSafetyMargin().toMillis();
+        if (minTimestamp <= 0) {
+            return;
+        }
+
+        String minId = minTimestamp + "-0";
+        // approximate trimming only removes whole radix tree nodes, which keeps XTRIM cheap
+        Long trimmed = redisTemplate.execute((RedisCallback<Long>) connection -> (Long) connection.execute("XTRIM",
+                bytes(stream), bytes("MINID"), bytes("~"), bytes(minId)));
+        if (trimmed != null && trimmed > 0) {
+            Counter.builder("notification.stream.trimmed")
+                    .description("Entries removed by XTRIM")
+                    .tag("stream", stream)
+                    .register(meterRegistry)
+                    .increment(trimmed);
+            log.debug("Trimmed {} entries older than {} from stream '{}'", trimmed, minId, stream);
+        }
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Counts consecutive samples in which the backlog grew; only touched by the scheduler thread.
+     */
+    private class BacklogTrend {
+
+        private long previous = -1;
+        private long startedAt;
+        private int growingSamples;
+
+        void sample(String stream, long backlog) {
+            if (previous >= 0 && backlog > previous) {
+                if (growingSamples++ == 0) {
+                    startedAt = previous;
+                }
+                // once per window of growing samples rather than on every run
+                if (growingSamples % Math.max(1, properties.getHousekeeping().getGrowthWarnSamples()) == 0) {
+                    long intervalMs = properties.getHousekeeping().getIntervalMs();
+                    double perMinute = (backlog - startedAt) * 60_000.0 / (growingSamples * intervalMs);
+                    log.warn("Backlog of stream '{}' grew for {} consecutive samples: {} -> {} (~{} entries/min), "
+                                    + "consumers are not keeping up",
+                            stream, growingSamples, startedAt, backlog, Math.round(perMinute));
+                }
+            } else {
+                growingSamples = 0;
+            }
+            previous = backlog;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package capstone.notificationservice.controller;
+
+import capstone.notificationservice.dto.BroadcastProgressDTO;
+import capstone.notificationservice.service.BroadcastService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/admin/broadcasts")
+@RequiredArgsConstructor
+@Tag(name = "Broadcasts", description = "Track fan-out of broadcast notifications")
+public class BroadcastController {
+
+    private final BroadcastService broadcastService;
+
+    @GetMapping("/{broadcastId}")
+    @Operation(summary = "Broadcast progress", description = "Recipients inserted and pushed, and chunks inserted so far, for a broadcast")
+    public ResponseEntity<BroadcastProgressDTO> getProgress(
+            @Parameter(description = "Broadcast ID", required = true) @PathVariable String broadcastId) {
+        return ResponseEntity.ok(broadcastService.getProgress(broadcastId));
+    }
+}
@@ -0,0 +1,44 @@
+package capstone.notificationservice.controller;
+
+import capstone.notificationservice.dto.DeadLetterDTO;
+import capstone.notificationservice.service.DeadLetterService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/admin/dead-letters")
+@RequiredArgsConstructor
+@Tag(name = "Dead letters", description = "Inspect and replay notification events that exhausted their retries")
+public class DeadLetterController {
+
+    private final DeadLetterService deadLetterService;
+
+    @GetMapping("/{stream}")
+    @Operation(summary = "List dead letters", description = "List dead-lettered records of an input stream, oldest first")
+    public ResponseEntity<List<DeadLetterDTO>> getDeadLetters(
+            @Parameter(description = "Input stream key", required = true) @PathVariable String stream,
+            @Parameter(description = "Maximum number of records") @RequestParam(defaultValue = "50") int count) {
+        return ResponseEntity.ok(deadLetterService.getDeadLetters(stream, count));
+    }
+
+    @PostMapping("/{stream}/replay")
+    @Operation(summary = "Replay dead letters", description = "Put dead-lettered records back on their input stream")
+    public ResponseEntity<Map<String, Object>> replay(
+            @Parameter(description = "Input stream key", required = true) @PathVariable String stream,
+            @Parameter(description = "Dead-letter record IDs, replays the oldest records when empty") @RequestParam(required = false) List<String> ids,
+            @Parameter(description = "Maximum number of records when no IDs are given") @RequestParam(defaultValue = "100") int count) {
+        int replayed = deadLetterService.replay(stream, ids, count);
+        return ResponseEntity.ok(Map.of(
+                "status", "success",
+                "replayed", replayed));
+    }
+}
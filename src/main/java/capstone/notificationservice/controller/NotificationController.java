@@ -1,5 +1,7 @@
 package capstone.notificationservice.controller;
 
+import capstone.notificationservice.dto.NotificationCursor;
+import capstone.notificationservice.dto.NotificationCursorResponse;
 import capstone.notificationservice.dto.NotificationDTO;
 import capstone.notificationservice.dto.NotificationPageResponse;
 import capstone.notificationservice.service.NotificationService;
@@ -10,9 +12,11 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.Map;
 
 @Slf4j
@@ -34,6 +38,17 @@ public class NotificationController {
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping("/cursor")
+    @Operation(summary = "Get user notifications by cursor",
+            description = "Get notifications newest first using keyset pagination; pass nextCursor from the previous response to continue")
+    public ResponseEntity<NotificationCursorResponse> getNotificationsByCursor(
+            @Parameter(description = "Opaque cursor from the previous response, omit for the first slice") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Slice size (max 100)") @RequestParam(defaultValue = "10") int size) {
+        int sliceSize = Math.max(1, Math.min(size, 100));
+        NotificationCursorResponse response = notificationService.getNotificationsByCursor(cursor, sliceSize);
+        return ResponseEntity.ok(response);
+    }
+
     @PutMapping("/{id}/read")
     @Operation(summary = "Mark notification as read", description = "Mark a single notification as read")
     public ResponseEntity<NotificationDTO> markAsRead(
@@ -44,12 +59,24 @@ public class NotificationController {
     }
 
     @PutMapping("/read-all")
-    @Operation(summary = "Mark all as read", description = "Mark all notifications as read for a user")
-    public ResponseEntity<Map<String, String>> markAllAsRead() {
-        notificationService.markAllAsRead();
+    @Operation(summary = "Mark all as read",
+            description = "Mark all notifications as read for a user, or only those up to a cursor or timestamp")
+    public ResponseEntity<Map<String, Object>> markAllAsRead(
+            @Parameter(description = "Mark notifications at or before this cursor position") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Mark notifications created at or before this time (ISO-8601)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime before) {
+        NotificationCursor upTo = null;
+        if (cursor != null && !cursor.isBlank()) {
+            upTo = NotificationCursor.decode(cursor);
+        } else if (before != null) {
+            upTo = new NotificationCursor(before, Long.MAX_VALUE);
+        }
+
+        int updated = notificationService.markAllAsRead(upTo);
         return ResponseEntity.ok(Map.of(
                 "status", "success",
-                "message", "All notifications marked as read"));
+                "message", upTo == null ? "All notifications marked as read" : "Notifications marked as read",
+                "updatedCount", updated));
     }
 
     @GetMapping("/unread-count")
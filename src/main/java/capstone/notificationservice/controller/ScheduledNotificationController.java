@@ -0,0 +1,42 @@
+package capstone.notificationservice.controller;
+
+import capstone.notificationservice.event.ScheduledNotificationEvent;
+import capstone.notificationservice.service.ScheduledNotificationService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/admin/scheduled-notifications")
+@RequiredArgsConstructor
+@Tag(name = "Scheduled notifications", description = "Schedule notifications such as event reminders for later delivery")
+public class ScheduledNotificationController {
+
+    private final ScheduledNotificationService scheduledNotificationService;
+
+    @PostMapping
+    @Operation(summary = "Schedule notification", description = "Deliver a notification to the given users at deliverAt; the same scheduleKey reschedules it")
+    public ResponseEntity<Map<String, Object>> schedule(@RequestBody ScheduledNotificationEvent request) {
+        int scheduled = scheduledNotificationService.schedule(request);
+        return ResponseEntity.ok(Map.of(
+                "status", "success",
+                "scheduled", scheduled));
+    }
+
+    @DeleteMapping("/{scheduleKey}")
+    @Operation(summary = "Cancel scheduled notification", description = "Drop every pending notification with the schedule key")
+    public ResponseEntity<Map<String, Object>> cancel(
+            @Parameter(description = "Schedule key", required = true) @PathVariable String scheduleKey) {
+        int cancelled = scheduledNotificationService.cancel(scheduleKey);
+        return ResponseEntity.ok(Map.of(
+                "status", "success",
+                "cancelled", cancelled));
+    }
+}
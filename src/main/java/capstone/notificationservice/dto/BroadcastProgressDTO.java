@@ -0,0 +1,24 @@
+package capstone.notificationservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BroadcastProgressDTO {
+
+    private String broadcastId;
+    private String status;
+    private long total;
+    private long inserted;
+    private long pushed;
+    private int chunks;
+    private int completedChunks;
+    private String startedAt;
+    private String completedAt;
+    private String error;
+}
@@ -0,0 +1,22 @@
+package capstone.notificationservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DeadLetterDTO {
+
+    private String id;
+    private String originalStream;
+    private String originalId;
+    private int attempts;
+    private String errorType;
+    private String error;
+    private String failedAt;
+    private String payload;
+}
@@ -0,0 +1,34 @@
+package capstone.notificationservice.dto;
+
+import capstone.notificationservice.exception.AppException;
+import capstone.notificationservice.exception.ErrorCode;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Position in a user's notification list, ordered by {@code (createdAt DESC, id DESC)}.
+ * Clients receive it as an opaque base64url token.
+ */
+public record NotificationCursor(LocalDateTime createdAt, Long id) {
+
+    private static final String SEPARATOR = "|";
+
+    public String encode() {
+        String raw = createdAt + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static NotificationCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(SEPARATOR);
+            return new NotificationCursor(
+                    LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (Exception e) {
+            throw new AppException(ErrorCode.BAD_REQUEST, "Invalid cursor");
+        }
+    }
+}
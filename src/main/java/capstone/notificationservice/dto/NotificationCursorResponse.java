@@ -0,0 +1,20 @@
+package capstone.notificationservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class NotificationCursorResponse {
+
+    private List<NotificationDTO> content;
+    private String nextCursor;
+    private boolean hasNext;
+    private int pageSize;
+}
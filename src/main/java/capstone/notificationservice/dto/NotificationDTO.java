@@ -8,9 +8,6 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
-import java.time.OffsetDateTime;
-import java.time.ZoneId;
-import java.util.Optional;
 
 @Data
 @NoArgsConstructor
@@ -18,6 +15,8 @@ import java.util.Optional;
 @Builder
 public class NotificationDTO {
 
+    // field order is the constructor used by the JPQL projections in NotificationRepository
+
     private Long id;
     private Long userId;
     private String title;
@@ -29,18 +28,15 @@ public class NotificationDTO {
     private String imageUrl;
 
     public static NotificationDTO fromEntity(Notification notification) {
-        return NotificationDTO.builder()
-                .id(notification.getId())
-                .userId(notification.getUserId())
-                .title(notification.getTitle())
-                .message(notification.getMessage())
-                .type(notification.getType())
-                .isRead(notification.isRead())
-                .createdAt(notification.getCreatedAt().atZone(ZoneId.systemDefault()).toLocalDateTime())
-                .readAt(Optional.ofNullable(notification.getReadAt())
-                        .map(t -> t.atZone(ZoneId.systemDefault()).toLocalDateTime())
-                        .orElse(null))
-                .imageUrl(notification.getImageUrl())
-                .build();
+        return new NotificationDTO(
+                notification.getId(),
+                notification.getUserId(),
+                notification.getTitle(),
+                notification.getMessage(),
+                notification.getType(),
+                notification.isRead(),
+                notification.getCreatedAt(),
+                notification.getReadAt(),
+                notification.getImageUrl());
     }
 }
@@ -0,0 +1,22 @@
+package capstone.notificationservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Realtime event telling the user's open clients that a range of notifications was marked as read.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class NotificationReadSyncDTO {
+
+    private LocalDateTime upTo;
+    private LocalDateTime readAt;
+    private int updatedCount;
+}
@@ -0,0 +1,10 @@
+package capstone.notificationservice.enums;
+
+/**
+ * Outbound mail priority lanes, highest priority first.
+ */
+public enum MailLane {
+    OTP,
+    TRANSACTIONAL,
+    BULK
+}
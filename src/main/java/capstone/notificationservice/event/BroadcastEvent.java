@@ -0,0 +1,24 @@
+package capstone.notificationservice.event;
+
+import capstone.notificationservice.enums.NotificationType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BroadcastEvent {
+    String broadcastId;
+    String title;
+    String message;
+    NotificationType type;
+    String imageUrl;
+    // explicit recipients, or the key of a Redis set holding the userIds of a segment
+    List<Long> userIds;
+    String audienceKey;
+}
@@ -0,0 +1,25 @@
+package capstone.notificationservice.event;
+
+import capstone.notificationservice.enums.NotificationType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ScheduledNotificationEvent {
+    // optional producer key, e.g. "event-reminder:42"; scheduling the same key again reschedules it
+    String scheduleKey;
+    List<Long> userIds;
+    String title;
+    String message;
+    NotificationType type;
+    String imageUrl;
+    LocalDateTime deliverAt;
+}
@@ -0,0 +1,22 @@
+package capstone.notificationservice.handler;
+
+import java.util.List;
+
+/**
+ * Handler that can take a whole polled batch at once. Used for streams configured with
+ * {@code batch: true}; other handlers of batch streams get their events one by one.
+ */
+public interface BatchNotificationEventHandler<T> extends NotificationEventHandler<T> {
+
+    /**
+     * Every event must be reported exactly once, either as succeeded or as failed.
+     */
+    void handleBatch(List<StreamEvent<T>> events, BatchOutcome<T> outcome);
+
+    interface BatchOutcome<T> {
+
+        void succeeded(StreamEvent<T> event);
+
+        void failed(StreamEvent<T> event, Exception cause);
+    }
+}
@@ -0,0 +1,50 @@
+package capstone.notificationservice.handler;
+
+import capstone.notificationservice.enums.NotificationType;
+import capstone.notificationservice.event.BroadcastEvent;
+import capstone.notificationservice.service.BroadcastService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BroadcastEventHandler implements NotificationEventHandler<BroadcastEvent> {
+
+    private final BroadcastService broadcastService;
+
+    @Override
+    public String stream() {
+        return "notification-broadcast";
+    }
+
+    @Override
+    public Class<BroadcastEvent> payloadType() {
+        return BroadcastEvent.class;
+    }
+
+    @Override
+    public NotificationType type() {
+        return NotificationType.SYSTEM;
+    }
+
+    /**
+     * A broadcast already fans out on its own pool, one at a time is enough.
+     */
+    @Override
+    public int concurrency() {
+        return 1;
+    }
+
+    @Override
+    public void handle(StreamEvent<BroadcastEvent> event) {
+        BroadcastEvent broadcastEvent = event.payload();
+        String broadcastId = broadcastEvent.getBroadcastId() != null
+                ? broadcastEvent.getBroadcastId()
+                : event.eventId().getValue();
+        log.info("Processing broadcast {}", broadcastId);
+
+        broadcastService.fanOut(broadcastEvent, broadcastId);
+    }
+}
@@ -0,0 +1,34 @@
+package capstone.notificationservice.handler;
+
+import capstone.notificationservice.enums.NotificationType;
+
+/**
+ * Handles the events of one Redis stream. Every bean of this type is picked up by
+ * {@link capstone.notificationservice.consumer.NotificationEventRegistry}: its stream gets a consumer
+ * group, a subscription and a worker pool, and payloads are read into {@link #payloadType()} with a
+ * Jackson reader resolved once at startup.
+ * <p>
+ * Handlers throw to fail an event; it is then retried with the stream's retry policy and finally
+ * dead-lettered.
+ */
+public interface NotificationEventHandler<T> {
+
+    String stream();
+
+    Class<T> payloadType();
+
+    /**
+     * Notification type the events are accounted under in pipeline metrics.
+     */
+    NotificationType type();
+
+    /**
+     * Worker count for the stream unless {@code app.stream.streams.<stream>.concurrency} is set;
+     * zero falls back to {@code app.stream.default-concurrency}.
+     */
+    default int concurrency() {
+        return 0;
+    }
+
+    void handle(StreamEvent<T> event) throws Exception;
+}
@@ -0,0 +1,45 @@
+package capstone.notificationservice.handler;
+
+import capstone.notificationservice.enums.NotificationType;
+import capstone.notificationservice.event.OrderConfirmEvent;
+import capstone.notificationservice.service.EmailService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OrderConfirmEventHandler implements NotificationEventHandler<OrderConfirmEvent> {
+
+    private final EmailService emailService;
+
+    @Override
+    public String stream() {
+        return "order-confirm";
+    }
+
+    @Override
+    public Class<OrderConfirmEvent> payloadType() {
+        return OrderConfirmEvent.class;
+    }
+
+    @Override
+    public NotificationType type() {
+        return NotificationType.PAYMENT;
+    }
+
+    @Override
+    public int concurrency() {
+        return 8;
+    }
+
+    @Override
+    public void handle(StreamEvent<OrderConfirmEvent> event) {
+        OrderConfirmEvent orderConfirmEvent = event.payload();
+        log.info("Processing order confirm for email: {}", orderConfirmEvent.getEmail());
+
+        emailService.sendOrderConfirmEmail(orderConfirmEvent, event.origin()).join();
+        log.info("order confirm email sent successfully for: {}", orderConfirmEvent.getEmail());
+    }
+}
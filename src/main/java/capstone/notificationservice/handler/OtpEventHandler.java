@@ -0,0 +1,45 @@
+package capstone.notificationservice.handler;
+
+import capstone.notificationservice.enums.NotificationType;
+import capstone.notificationservice.event.OtpEvent;
+import capstone.notificationservice.service.EmailService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OtpEventHandler implements NotificationEventHandler<OtpEvent> {
+
+    private final EmailService emailService;
+
+    @Override
+    public String stream() {
+        return "forgot-password-otp";
+    }
+
+    @Override
+    public Class<OtpEvent> payloadType() {
+        return OtpEvent.class;
+    }
+
+    @Override
+    public NotificationType type() {
+        return NotificationType.OTP;
+    }
+
+    @Override
+    public int concurrency() {
+        return 16;
+    }
+
+    @Override
+    public void handle(StreamEvent<OtpEvent> event) {
+        OtpEvent otpEvent = event.payload();
+        log.info("Processing OTP event for email: {}", otpEvent.getEmail());
+
+        emailService.sendOtpEmail(otpEvent.getEmail(), otpEvent.getOtpCode(), event.origin()).join();
+        log.info("OTP email sent successfully for: {}", otpEvent.getEmail());
+    }
+}
@@ -0,0 +1,46 @@
+package capstone.notificationservice.handler;
+
+import capstone.notificationservice.enums.NotificationType;
+import capstone.notificationservice.event.ScheduledNotificationEvent;
+import capstone.notificationservice.service.ScheduledNotificationService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ScheduledNotificationEventHandler implements NotificationEventHandler<ScheduledNotificationEvent> {
+
+    private final ScheduledNotificationService scheduledNotificationService;
+
+    @Override
+    public String stream() {
+        return "notification-scheduled";
+    }
+
+    @Override
+    public Class<ScheduledNotificationEvent> payloadType() {
+        return ScheduledNotificationEvent.class;
+    }
+
+    @Override
+    public NotificationType type() {
+        return NotificationType.EVENT;
+    }
+
+    @Override
+    public int concurrency() {
+        return 4;
+    }
+
+    @Override
+    public void handle(StreamEvent<ScheduledNotificationEvent> event) {
+        ScheduledNotificationEvent scheduled = event.payload();
+        if (scheduled.getScheduleKey() == null) {
+            // a retried event must land on the same rows instead of scheduling twice
+            scheduled.setScheduleKey("stream:" + event.eventId().getValue());
+        }
+        scheduledNotificationService.schedule(scheduled);
+    }
+}
@@ -0,0 +1,12 @@
+package capstone.notificationservice.handler;
+
+import org.springframework.data.redis.connection.stream.RecordId;
+
+import java.time.Instant;
+
+/**
+ * A deserialized stream event with the ID and time it first entered its stream, both kept
+ * across retries.
+ */
+public record StreamEvent<T>(T payload, RecordId eventId, Instant origin) {
+}
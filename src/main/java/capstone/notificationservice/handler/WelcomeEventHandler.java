@@ -0,0 +1,175 @@
+package capstone.notificationservice.handler;
+
+import capstone.notificationservice.entity.Notification;
+import capstone.notificationservice.enums.NotificationType;
+import capstone.notificationservice.event.WelcomeEvent;
+import capstone.notificationservice.service.EmailService;
+import capstone.notificationservice.service.NotificationService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class WelcomeEventHandler implements BatchNotificationEventHandler<WelcomeEvent> {
+
+    private static final String TITLE = "Chào mừng đến với EvoTicket!";
+    // set once the email of an event went out, so a retry only redoes the notification insert
+    private static final String EMAILED_PREFIX = "notification:welcome:emailed:";
+
+    private final EmailService emailService;
+    private final NotificationService notificationService;
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    @Value("${app.logo}")
+    private String logo;
+
+    @Value("${app.stream.idempotency.window:24h}")
+    private Duration emailedTtl;
+
+    @Override
+    public String stream() {
+        return "welcome-signup";
+    }
+
+    @Override
+    public Class<WelcomeEvent> payloadType() {
+        return WelcomeEvent.class;
+    }
+
+    @Override
+    public NotificationType type() {
+        return NotificationType.WELCOME;
+    }
+
+    @Override
+    public int concurrency() {
+        return 4;
+    }
+
+    @Override
+    public void handle(StreamEvent<WelcomeEvent> event) {
+        WelcomeEvent welcomeEvent = event.payload();
+        log.info("Processing Welcome event for email: {}", welcomeEvent.getEmail());
+
+        if (!alreadyEmailed(event)) {
+            emailService.sendWelcomeEmail(
+                    welcomeEvent.getEmail(),
+                    welcomeEvent.getFullName(),
+                    welcomeEvent.getUsername(),
+                    event.origin()).join();
+            markEmailed(event);
+            log.info("Welcome email sent successfully for: {}", welcomeEvent.getEmail());
+        }
+
+        notificationService.createAndSendNotification(
+                welcomeEvent.getUserId(),
+                TITLE,
+                messageFor(welcomeEvent),
+                NotificationType.WELCOME,
+                logo
+        );
+    }
+
+    /**
+     * Sends all emails of the batch concurrently, then stores the notifications of the users
+     * whose email went out with one multi-row insert. Emails are recorded as sent before the
+     * insert, so when the insert fails the retried events skip straight to it.
+     */
+    @Override
+    public void handleBatch(List<StreamEvent<WelcomeEvent>> events, BatchOutcome<WelcomeEvent> outcome) {
+        Map<StreamEvent<WelcomeEvent>, CompletableFuture<Void>> sends = new LinkedHashMap<>();
+
+        for (StreamEvent<WelcomeEvent> event : events) {
+            try {
+                WelcomeEvent welcomeEvent = event.payload();
+                log.info("Processing Welcome event for email: {}", welcomeEvent.getEmail());
+
+                sends.put(event, alreadyEmailed(event)
+                        ? CompletableFuture.completedFuture(null)
+                        : emailService.sendWelcomeEmail(
+                                welcomeEvent.getEmail(),
+                                welcomeEvent.getFullName(),
+                                welcomeEvent.getUsername(),
+                                event.origin())
+                        .thenRun(() -> markEmailed(event)));
+
+            } catch (Exception e) {
+                outcome.failed(event, e);
+            }
+        }
+
+        List<Notification> notifications = new ArrayList<>(sends.size());
+        List<StreamEvent<WelcomeEvent>> emailed = new ArrayList<>(sends.size());
+
+        sends.forEach((event, send) -> {
+            try {
+                send.join();
+                WelcomeEvent welcomeEvent = event.payload();
+                log.info("Welcome email sent successfully for: {}", welcomeEvent.getEmail());
+
+                notifications.add(Notification.builder()
+                        .userId(welcomeEvent.getUserId())
+                        .title(TITLE)
+                        .message(messageFor(welcomeEvent))
+                        .type(NotificationType.WELCOME)
+                        .read(false)
+                        .createdAt(LocalDateTime.now())
+                        .imageUrl(logo)
+                        .build());
+                emailed.add(event);
+
+            } catch (Exception e) {
+                outcome.failed(event, e);
+            }
+        });
+
+        try {
+            notificationService.createAndSendNotifications(notifications);
+            emailed.forEach(outcome::succeeded);
+        } catch (Exception e) {
+            log.error("Error saving batch of {} Welcome notifications", notifications.size(), e);
+            emailed.forEach(event -> outcome.failed(event, e));
+        }
+    }
+
+    /**
+     * Unknown when Redis cannot be asked; the email is sent again rather than skipped.
+     */
+    private boolean alreadyEmailed(StreamEvent<WelcomeEvent> event) {
+        try {
+            return Boolean.TRUE.equals(redisTemplate.hasKey(emailedKey(event)));
+        } catch (Exception e) {
+            log.warn("Could not check whether welcome email of {} was sent: {}", event.eventId(), e.getMessage());
+            return false;
+        }
+    }
+
+    private void markEmailed(StreamEvent<WelcomeEvent> event) {
+        try {
+            redisTemplate.opsForValue().set(emailedKey(event), "1", emailedTtl);
+        } catch (Exception e) {
+            log.warn("Could not record welcome email of {} as sent: {}", event.eventId(), e.getMessage());
+        }
+    }
+
+    private String emailedKey(StreamEvent<WelcomeEvent> event) {
+        return EMAILED_PREFIX + event.eventId().getValue();
+    }
+
+    private String messageFor(WelcomeEvent welcomeEvent) {
+        return "Xin chào " + welcomeEvent.getFullName()
+                + "! Tài khoản của bạn đã được tạo thành công. Chúc bạn có trải nghiệm tuyệt vời!";
+    }
+}
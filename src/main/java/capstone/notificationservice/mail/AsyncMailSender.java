@@ -0,0 +1,185 @@
+package capstone.notificationservice.mail;
+
+import capstone.notificationservice.config.MailDeliveryProperties;
+import capstone.notificationservice.enums.MailLane;
+import capstone.notificationservice.enums.NotificationType;
+import capstone.notificationservice.exception.AppException;
+import capstone.notificationservice.exception.ErrorCode;
+import capstone.notificationservice.metrics.PipelineMetrics;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.Address;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sends prepared MIME messages over pooled SMTP connections from a fixed set of sender
+ * threads, always picking the highest-priority lane first. A few threads are reserved for
+ * the OTP lane only, so OTP codes still go out when every shared thread is busy with
+ * order confirmations or welcome mail.
+ */
+@Slf4j
+@Component
+public class AsyncMailSender {
+
+    private final SmtpTransportPool transportPool;
+    private final MailDeliveryProperties properties;
+    private final PipelineMetrics pipelineMetrics;
+    private final PriorityBlockingQueue<LaneTask> sharedQueue = new PriorityBlockingQueue<>(64,
+            Comparator.comparingInt((LaneTask task) -> task.lane().ordinal()).thenComparingLong(LaneTask::sequence));
+    private final BlockingQueue<LaneTask> reservedQueue = new LinkedBlockingQueue<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final Map<MailLane, AtomicInteger> queued = new EnumMap<>(MailLane.class);
+    private final Map<MailLane, Timer> latencyTimers = new EnumMap<>(MailLane.class);
+    private final List<Thread> workers = new ArrayList<>();
+    private volatile boolean running = true;
+
+    public AsyncMailSender(SmtpTransportPool transportPool, MailDeliveryProperties properties,
+                           PipelineMetrics pipelineMetrics, MeterRegistry meterRegistry) {
+        this.transportPool = transportPool;
+        this.properties = properties;
+        this.pipelineMetrics = pipelineMetrics;
+
+        for (MailLane lane : MailLane.values()) {
+            AtomicInteger depth = new AtomicInteger();
+            queued.put(lane, depth);
+            Gauge.builder("notification.mail.lane.queued", depth, AtomicInteger::get)
+                    .description("Mails waiting for a sender thread")
+                    .tag("lane", lane.name())
+                    .register(meterRegistry);
+            latencyTimers.put(lane, Timer.builder("notification.mail.lane.latency")
+                    .description("Time from stream entry to SMTP accept")
+                    .tag("lane", lane.name())
+                    .publishPercentileHistogram()
+                    .serviceLevelObjectives(Duration.ofSeconds(1), Duration.ofSeconds(3), Duration.ofSeconds(10))
+                    .register(meterRegistry));
+        }
+
+        int reserved = Math.min(properties.getReservedOtpWorkers(), properties.getPoolSize() - 1);
+        for (int i = 0; i < properties.getPoolSize(); i++) {
+            BlockingQueue<LaneTask> source = i < reserved ? reservedQueue : sharedQueue;
+            Thread worker = Thread.ofPlatform()
+                    .name((i < reserved ? "smtp-sender-otp-" : "smtp-sender-") + i)
+                    .daemon(true)
+                    .start(() -> work(source));
+            workers.add(worker);
+        }
+    }
+
+    public CompletableFuture<Void> send(MimeMessage message, NotificationType type, MailLane lane, Instant origin) {
+        if (!running) {
+            return CompletableFuture.failedFuture(new AppException(ErrorCode.MESSAGE_ERROR, "Mail sender is shutting down"));
+        }
+
+        LaneTask task = new LaneTask(message, type, lane, origin != null ? origin : Instant.now(),
+                sequence.incrementAndGet(), new AtomicBoolean(), new CompletableFuture<>());
+        queued.get(lane).incrementAndGet();
+
+        sharedQueue.add(task);
+        if (lane == MailLane.OTP) {
+            reservedQueue.add(task);
+        }
+        return task.future();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        long deadline = System.nanoTime() + properties.getShutdownTimeout().toNanos();
+        for (Thread worker : workers) {
+            try {
+                worker.join(Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime())));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        workers.forEach(Thread::interrupt);
+    }
+
+    private void work(BlockingQueue<LaneTask> source) {
+        while (running || !source.isEmpty()) {
+            LaneTask task;
+            try {
+                task = source.poll(500, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+
+            // OTP tasks sit in both queues, whichever worker claims first sends it
+            if (task == null || !task.claimed().compareAndSet(false, true)) {
+                continue;
+            }
+            queued.get(task.lane()).decrementAndGet();
+
+            long smtpStart = System.nanoTime();
+            try {
+                deliver(task.message());
+                latencyTimers.get(task.lane()).record(Duration.between(task.origin(), Instant.now()));
+                task.future().complete(null);
+            } catch (MessagingException e) {
+                task.future().completeExceptionally(
+                        new AppException(ErrorCode.MESSAGE_ERROR, "Failed to send HTML email", e));
+            } catch (Exception e) {
+                task.future().completeExceptionally(e);
+            } finally {
+                // timed here rather than by the caller so lane queueing is not counted as SMTP
+                pipelineMetrics.recordStage(PipelineMetrics.SMTP, task.type(), smtpStart);
+            }
+        }
+    }
+
+    private void deliver(MimeMessage message) throws MessagingException {
+        if (message.getSentDate() == null) {
+            message.setSentDate(new Date());
+        }
+        message.saveChanges();
+        Address[] recipients = message.getAllRecipients();
+
+        PooledTransport pooled = transportPool.borrow();
+        try {
+            pooled.getTransport().sendMessage(message, recipients != null ? recipients : new Address[0]);
+            transportPool.release(pooled);
+        } catch (MessagingException e) {
+            transportPool.invalidate(pooled);
+            if (!pooled.isReused()) {
+                throw e;
+            }
+            // the server may have dropped a reused connection, retry once on another one
+            log.debug("Send failed on reused SMTP connection, retrying: {}", e.getMessage());
+            PooledTransport other = transportPool.borrow();
+            try {
+                other.getTransport().sendMessage(message, recipients != null ? recipients : new Address[0]);
+                transportPool.release(other);
+            } catch (MessagingException retryException) {
+                transportPool.invalidate(other);
+                throw retryException;
+            }
+        }
+    }
+
+    private record LaneTask(MimeMessage message, NotificationType type, MailLane lane, Instant origin, long sequence,
+                            AtomicBoolean claimed, CompletableFuture<Void> future) {}
+}
@@ -0,0 +1,30 @@
+package capstone.notificationservice.mail;
+
+import jakarta.mail.Transport;
+import lombok.Getter;
+
+@Getter
+public class PooledTransport {
+
+    private final Transport transport;
+    private int messagesSent;
+    private long lastUsedAt;
+
+    PooledTransport(Transport transport) {
+        this.transport = transport;
+        this.lastUsedAt = System.currentTimeMillis();
+    }
+
+    void markUsed() {
+        messagesSent++;
+        lastUsedAt = System.currentTimeMillis();
+    }
+
+    long idleMillis() {
+        return System.currentTimeMillis() - lastUsedAt;
+    }
+
+    boolean isReused() {
+        return messagesSent > 0;
+    }
+}
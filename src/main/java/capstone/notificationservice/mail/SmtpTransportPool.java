@@ -0,0 +1,85 @@
+package capstone.notificationservice.mail;
+
+import capstone.notificationservice.config.MailDeliveryProperties;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Transport;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Keeps authenticated SMTP transports open between sends so the TCP, STARTTLS and AUTH
+ * handshake is paid once per connection instead of once per mail. A connection is retired
+ * after {@code app.mail.max-messages-per-connection} messages or on any send failure.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SmtpTransportPool {
+
+    private final JavaMailSenderImpl mailSender;
+    private final MailDeliveryProperties properties;
+    private final BlockingQueue<PooledTransport> idle = new LinkedBlockingQueue<>();
+
+    public PooledTransport borrow() throws MessagingException {
+        PooledTransport pooled;
+        while ((pooled = idle.poll()) != null) {
+            if (isUsable(pooled)) {
+                return pooled;
+            }
+            close(pooled);
+        }
+        return connect();
+    }
+
+    public void release(PooledTransport pooled) {
+        pooled.markUsed();
+        if (pooled.getMessagesSent() >= properties.getMaxMessagesPerConnection()
+                || idle.size() >= properties.getPoolSize()) {
+            close(pooled);
+            return;
+        }
+        idle.offer(pooled);
+    }
+
+    public void invalidate(PooledTransport pooled) {
+        close(pooled);
+    }
+
+    @PreDestroy
+    public void closeAll() {
+        PooledTransport pooled;
+        while ((pooled = idle.poll()) != null) {
+            close(pooled);
+        }
+        log.info("SMTP transport pool closed");
+    }
+
+    private boolean isUsable(PooledTransport pooled) {
+        if (pooled.idleMillis() < properties.getValidateAfterIdle().toMillis()) {
+            return true;
+        }
+        // SMTPTransport#isConnected issues a NOOP, so only pay that round-trip for connections that sat idle
+        return pooled.getTransport().isConnected();
+    }
+
+    private PooledTransport connect() throws MessagingException {
+        Transport transport = mailSender.getSession().getTransport(mailSender.getProtocol());
+        transport.connect(mailSender.getHost(), mailSender.getPort(), mailSender.getUsername(), mailSender.getPassword());
+        log.debug("Opened new SMTP connection to {}:{}", mailSender.getHost(), mailSender.getPort());
+        return new PooledTransport(transport);
+    }
+
+    private void close(PooledTransport pooled) {
+        try {
+            pooled.getTransport().close();
+        } catch (MessagingException e) {
+            log.debug("Error closing SMTP connection: {}", e.getMessage());
+        }
+    }
+}
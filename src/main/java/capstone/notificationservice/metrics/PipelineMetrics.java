@@ -0,0 +1,106 @@
+package capstone.notificationservice.metrics;
+
+import capstone.notificationservice.enums.NotificationType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Meters for the stream-to-user path: how long records wait in their stream, how long handlers
+ * take, per-stage timings by notification type and the final outcome of every record.
+ */
+@Component
+public class PipelineMetrics {
+
+    public static final String DESERIALIZE = "deserialize";
+    public static final String SMTP = "smtp";
+    public static final String DB = "db";
+    public static final String PUSH = "push";
+
+    public static final String SUCCESS = "success";
+    public static final String FAILURE = "failure";
+    public static final String RETRY = "retry";
+    public static final String DEAD_LETTER = "dead_letter";
+    public static final String DUPLICATE = "duplicate";
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+    public PipelineMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Time between the record entering its stream (the ID timestamp) and a handler picking it up.
+     */
+    public void recordStreamWait(String stream, RecordId id) {
+        if (id.shouldBeAutoGenerated()) {
+            return;
+        }
+        long waitMs = Math.max(0, System.currentTimeMillis() - id.getTimestamp());
+        timer("notification.stream.wait", "stream", stream)
+                .record(waitMs, TimeUnit.MILLISECONDS);
+    }
+
+    public void recordHandler(String stream, String outcome, long startNanos) {
+        timer("notification.handler.duration", "stream", stream, "outcome", outcome)
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordStage(String stage, NotificationType type, long startNanos) {
+        timer("notification.pipeline.stage", "stage", stage, "type", type != null ? type.name() : "UNKNOWN")
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public <T, E extends Exception> T time(String stage, NotificationType type, StageCall<T, E> call) throws E {
+        long start = System.nanoTime();
+        try {
+            return call.call();
+        } finally {
+            recordStage(stage, type, start);
+        }
+    }
+
+    public void outcome(String stream, String outcome, Throwable cause) {
+        counter("notification.outcome",
+                "stream", stream,
+                "outcome", outcome,
+                "reason", cause == null ? "none" : rootCause(cause).getClass().getSimpleName())
+                .increment();
+    }
+
+    private Timer timer(String name, String... tags) {
+        return timers.computeIfAbsent(name + String.join(",", tags), key -> Timer.builder(name)
+                .tags(tags)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .register(meterRegistry));
+    }
+
+    private Counter counter(String name, String... tags) {
+        return counters.computeIfAbsent(name + String.join(",", tags), key -> Counter.builder(name)
+                .tags(tags)
+                .register(meterRegistry));
+    }
+
+    private static Throwable rootCause(Throwable cause) {
+        Throwable root = cause;
+        while (root.getCause() != null && root.getCause() != root) {
+            root = root.getCause();
+        }
+        return root;
+    }
+
+    @FunctionalInterface
+    public interface StageCall<T, E extends Exception> {
+        T call() throws E;
+    }
+}
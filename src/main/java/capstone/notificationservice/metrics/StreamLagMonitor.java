@@ -0,0 +1,147 @@
+package capstone.notificationservice.metrics;
+
+import capstone.notificationservice.config.StreamConsumerProperties;
+import capstone.notificationservice.consumer.RedisStreamConsumer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.stream.PendingMessagesSummary;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamInfo;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Samples consumer-group state of every input stream (XINFO GROUPS, XPENDING), its length and
+ * memory, and the retry queue depth, and exposes them as gauges. Pending is delivered but not yet
+ * acknowledged; lag is entries not delivered to the group yet. The latest sample per stream is
+ * kept for {@link capstone.notificationservice.consumer.StreamHousekeeper}.
+ */
+@Slf4j
+@Component
+public class StreamLagMonitor {
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final RedisStreamConsumer redisStreamConsumer;
+    private final StreamConsumerProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, AtomicLong> values = new ConcurrentHashMap<>();
+    private final Map<String, StreamSample> samples = new ConcurrentHashMap<>();
+    private final AtomicLong retryQueued = new AtomicLong();
+
+    public StreamLagMonitor(RedisTemplate<String, Object> redisTemplate,
+                            RedisStreamConsumer redisStreamConsumer,
+                            StreamConsumerProperties properties,
+                            MeterRegistry meterRegistry) {
+        this.redisTemplate = redisTemplate;
+        this.redisStreamConsumer = redisStreamConsumer;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+
+        Gauge.builder("notification.retry.queued", retryQueued, AtomicLong::get)
+                .description("Records waiting in the retry queue")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.metrics.stream-lag-interval-ms:15000}")
+    public void sample() {
+        for (String stream : redisStreamConsumer.getStreamKeys()) {
+            try {
+                samples.put(stream, sampleStream(stream));
+            } catch (Exception e) {
+                log.debug("Could not sample stream '{}': {}", stream, e.getMessage());
+            }
+        }
+
+        Long queued = redisTemplate.opsForZSet().zCard(properties.getRetry().getQueueKey());
+        retryQueued.set(queued == null ? 0 : queued);
+    }
+
+    public Optional<StreamSample> latest(String stream) {
+        return Optional.ofNullable(samples.get(stream));
+    }
+
+    private StreamSample sampleStream(String stream) {
+        String group = properties.getGroup();
+        long backlog = 0;
+        long oldestAgeMs = 0;
+        RecordId oldestNeeded = null;
+
+        StreamInfo.XInfoGroups groups = redisTemplate.opsForStream().groups(stream);
+        for (StreamInfo.XInfoGroup info : groups.stream().toList()) {
+            PendingMessagesSummary summary = info.pendingCount() > 0
+                    ? redisTemplate.opsForStream().pending(stream, info.groupName())
+                    : null;
+            RecordId needed = summary != null && summary.minMessageId() != null
+                    ? RecordId.of(summary.minMessageId())
+                    : RecordId.of(info.lastDeliveredId());
+            if (oldestNeeded == null || compare(needed, oldestNeeded) < 0) {
+                oldestNeeded = needed;
+            }
+
+            if (!group.equals(info.groupName())) {
+                continue;
+            }
+            gauge("notification.stream.pending", stream, "Entries delivered to the group but not acknowledged")
+                    .set(info.pendingCount());
+            backlog = info.pendingCount();
+            // reported by Redis 7+, absent on older servers
+            Object lag = info.getRaw().get("lag");
+            if (lag instanceof Number number) {
+                gauge("notification.stream.lag", stream, "Entries not yet delivered to the group")
+                        .set(number.longValue());
+                backlog += number.longValue();
+            }
+            if (summary != null && summary.minMessageId() != null) {
+                oldestAgeMs = Math.max(0, System.currentTimeMillis() - RecordId.of(summary.minMessageId()).getTimestamp());
+            }
+        }
+        gauge("notification.stream.pending.oldest.age.ms", stream, "Age of the oldest unacknowledged entry")
+                .set(oldestAgeMs);
+
+        Long length = redisTemplate.opsForStream().size(stream);
+        gauge("notification.stream.length", stream, "Entries in the stream").set(length == null ? 0 : length);
+        gauge("notification.stream.memory.bytes", stream, "Memory used by the stream as reported by MEMORY USAGE")
+                .set(memoryUsage(stream));
+
+        return new StreamSample(Instant.now(), backlog, oldestNeeded);
+    }
+
+    private long memoryUsage(String stream) {
+        Long bytes = redisTemplate.execute((RedisCallback<Long>) connection -> (Long) connection.execute("MEMORY",
+                "USAGE".getBytes(StandardCharsets.UTF_8), stream.getBytes(StandardCharsets.UTF_8)));
+        return bytes == null ? 0 : bytes;
+    }
+
+    private static int compare(RecordId left, RecordId right) {
+        int byTimestamp = Long.compare(left.getTimestamp(), right.getTimestamp());
+        return byTimestamp != 0 ? byTimestamp : Long.compare(left.getSequence(), right.getSequence());
+    }
+
+    private AtomicLong gauge(String name, String stream, String description) {
+        return values.computeIfAbsent(name + ":" + stream, key -> {
+            AtomicLong value = new AtomicLong();
+            Gauge.builder(name, value, AtomicLong::get)
+                    .description(description)
+                    .tag("stream", stream)
+                    .register(meterRegistry);
+            return value;
+        });
+    }
+
+    /**
+     * @param backlog      pending plus lag of this service's group
+     * @param oldestNeeded oldest entry any group still needs, null when the stream has no group
+     */
+    public record StreamSample(Instant sampledAt, long backlog, RecordId oldestNeeded) {
+    }
+}
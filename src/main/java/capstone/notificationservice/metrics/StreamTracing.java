@@ -0,0 +1,57 @@
+package capstone.notificationservice.metrics;
+
+import io.micrometer.tracing.Link;
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import io.micrometer.tracing.propagation.Propagator;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Starts a consumer span per stream record. When the producer put a W3C {@code traceparent}
+ * field on the record the span joins the producer's trace, otherwise it starts a new one.
+ * Batch handlers run once for many records, so they get a batch span linked to every record span.
+ */
+@Component
+@RequiredArgsConstructor
+public class StreamTracing {
+
+    public static final String TRACE_PARENT_FIELD = "traceparent";
+
+    private final Tracer tracer;
+    private final Propagator propagator;
+
+    public Span startConsumerSpan(MapRecord<String, String, String> record) {
+        Map<String, String> body = record.getValue();
+        Span.Builder builder = body.containsKey(TRACE_PARENT_FIELD)
+                ? propagator.extract(body, Map::get)
+                : tracer.spanBuilder();
+
+        return builder
+                .name("consume " + record.getRequiredStream())
+                .kind(Span.Kind.CONSUMER)
+                .tag("messaging.system", "redis")
+                .tag("messaging.destination.name", record.getRequiredStream())
+                .tag("messaging.message.id", record.getId().getValue())
+                .start();
+    }
+
+    public Span startBatchSpan(String stream, List<Span> recordSpans) {
+        Span.Builder builder = tracer.spanBuilder()
+                .name("consume " + stream + " batch")
+                .kind(Span.Kind.CONSUMER)
+                .tag("messaging.system", "redis")
+                .tag("messaging.destination.name", stream)
+                .tag("messaging.batch.message_count", String.valueOf(recordSpans.size()));
+        recordSpans.forEach(span -> builder.addLink(new Link(span.context())));
+        return builder.start();
+    }
+
+    public Tracer.SpanInScope inScope(Span span) {
+        return tracer.withSpan(span);
+    }
+}
@@ -0,0 +1,69 @@
+package capstone.notificationservice.repository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public class BroadcastChunkRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String schema;
+
+    public BroadcastChunkRepository(JdbcTemplate jdbcTemplate,
+                                    @Value("${spring.jpa.properties.hibernate.default_schema:notification_service}") String schema) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.schema = schema;
+    }
+
+    /**
+     * Claims a chunk inside the caller's transaction. Returns false when the chunk was already
+     * delivered; a concurrent claim of the same chunk waits for the first one to commit or roll back.
+     */
+    public boolean claim(String broadcastId, int chunkIndex) {
+        return jdbcTemplate.update("INSERT INTO " + schema + ".broadcast_chunks (broadcast_id, chunk_index)"
+                + " VALUES (?, ?) ON CONFLICT DO NOTHING", broadcastId, chunkIndex) == 1;
+    }
+
+    public int deleteDeliveredBefore(LocalDateTime before) {
+        return jdbcTemplate.update("DELETE FROM " + schema + ".broadcast_chunks WHERE delivered_at < ?", before);
+    }
+
+    public Optional<List<Long>> findAudience(String broadcastId) {
+        return jdbcTemplate.query("SELECT user_ids FROM " + schema + ".broadcast_audiences WHERE broadcast_id = ?",
+                        (rs, rowNum) -> Arrays.asList((Long[]) rs.getArray("user_ids").getArray()),
+                        broadcastId)
+                .stream()
+                .findFirst();
+    }
+
+    /**
+     * Stores the audience unless one is already stored, then returns the stored one, so runs
+     * racing on the first snapshot all chunk the same list.
+     */
+    public List<Long> snapshotAudience(String broadcastId, List<Long> userIds) {
+        jdbcTemplate.execute((java.sql.Connection connection) -> {
+            Array array = connection.createArrayOf("bigint", userIds.toArray());
+            try (PreparedStatement ps = connection.prepareStatement("INSERT INTO " + schema
+                    + ".broadcast_audiences (broadcast_id, user_ids) VALUES (?, ?) ON CONFLICT DO NOTHING")) {
+                ps.setString(1, broadcastId);
+                ps.setArray(2, array);
+                return ps.executeUpdate();
+            } finally {
+                array.free();
+            }
+        });
+        return findAudience(broadcastId).orElseThrow();
+    }
+
+    public int deleteAudiencesBefore(LocalDateTime before) {
+        return jdbcTemplate.update("DELETE FROM " + schema + ".broadcast_audiences WHERE created_at < ?", before);
+    }
+}
@@ -0,0 +1,123 @@
+package capstone.notificationservice.repository;
+
+import capstone.notificationservice.enums.NotificationType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Array;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public class NotificationOutboxRepository {
+
+    // 5 parameters per row, well below the PostgreSQL bind parameter cap
+    private static final int MAX_ROWS_PER_STATEMENT = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String schema;
+
+    public NotificationOutboxRepository(JdbcTemplate jdbcTemplate,
+                                        @Value("${spring.jpa.properties.hibernate.default_schema:notification_service}") String schema) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.schema = schema;
+    }
+
+    public void insertAll(List<Entry> entries) {
+        for (int from = 0; from < entries.size(); from += MAX_ROWS_PER_STATEMENT) {
+            List<Entry> chunk = entries.subList(from, Math.min(from + MAX_ROWS_PER_STATEMENT, entries.size()));
+
+            StringBuilder sql = new StringBuilder("INSERT INTO ")
+                    .append(schema)
+                    .append(".notification_outbox (notification_id, user_id, type, payload, broadcast_id) VALUES ");
+            Object[] args = new Object[chunk.size() * 5];
+            int index = 0;
+            for (int i = 0; i < chunk.size(); i++) {
+                Entry entry = chunk.get(i);
+                sql.append(i == 0 ? "" : ", ").append("(?, ?, ?, ?, ?)");
+                args[index++] = entry.notificationId();
+                args[index++] = entry.userId();
+                args[index++] = entry.type() != null ? entry.type().name() : null;
+                args[index++] = entry.payload();
+                args[index++] = entry.broadcastId();
+            }
+            jdbcTemplate.update(sql.toString(), args);
+        }
+    }
+
+    /**
+     * Claims the oldest undelivered rows that are due for an attempt by leasing them until
+     * {@code lockedUntil}, in one statement. Rows another replica is claiming right now are
+     * skipped, not waited for, and no lock outlives the statement.
+     */
+    public List<Entry> claimPending(LocalDateTime now, LocalDateTime lockedUntil, int maxAttempts, int limit) {
+        return jdbcTemplate.query("UPDATE " + schema + ".notification_outbox SET locked_until = ? WHERE id IN ("
+                        + "SELECT id FROM " + schema + ".notification_outbox"
+                        + " WHERE delivered_at IS NULL AND attempts < ?"
+                        + " AND (next_attempt_at IS NULL OR next_attempt_at <= ?)"
+                        + " AND (locked_until IS NULL OR locked_until <= ?)"
+                        + " ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED)"
+                        + " RETURNING id, notification_id, user_id, type, payload, broadcast_id",
+                (rs, rowNum) -> new Entry(
+                        rs.getLong("id"),
+                        rs.getLong("notification_id"),
+                        rs.getLong("user_id"),
+                        rs.getString("type") != null ? NotificationType.valueOf(rs.getString("type")) : null,
+                        rs.getString("payload"),
+                        rs.getString("broadcast_id")),
+                lockedUntil, maxAttempts, now, now, limit);
+    }
+
+    public int markDelivered(List<Long> ids, LocalDateTime deliveredAt) {
+        return updateByIds("UPDATE " + schema + ".notification_outbox SET delivered_at = ?, locked_until = NULL WHERE id = ANY (?)",
+                ids, deliveredAt);
+    }
+
+    /**
+     * Counts a failed attempt and pushes the next one back by {@code initialBackoff * 2^attempts},
+     * capped at {@code maxBackoffSeconds}.
+     */
+    public int markFailed(List<Long> ids, LocalDateTime now, long initialBackoffSeconds, long maxBackoffSeconds) {
+        return updateByIds("UPDATE " + schema + ".notification_outbox SET attempts = attempts + 1,"
+                        + " next_attempt_at = ? + make_interval(secs => least(? * power(2, attempts), ?)),"
+                        + " locked_until = NULL"
+                        + " WHERE id = ANY (?)",
+                ids, now, initialBackoffSeconds, maxBackoffSeconds);
+    }
+
+    private int updateByIds(String sql, List<Long> ids, Object... leadingArgs) {
+        return jdbcTemplate.execute((java.sql.Connection connection) -> {
+            Array array = connection.createArrayOf("bigint", ids.toArray());
+            try (var ps = connection.prepareStatement(sql)) {
+                for (int i = 0; i < leadingArgs.length; i++) {
+                    ps.setObject(i + 1, leadingArgs[i]);
+                }
+                ps.setArray(leadingArgs.length + 1, array);
+                return ps.executeUpdate();
+            } finally {
+                array.free();
+            }
+        });
+    }
+
+    /**
+     * Deletes delivered rows, and rows that ran out of attempts, older than {@code before}.
+     */
+    public int deleteFinishedBefore(LocalDateTime before, int maxAttempts, int limit) {
+        return jdbcTemplate.update("DELETE FROM " + schema + ".notification_outbox WHERE id IN ("
+                + "SELECT id FROM " + schema + ".notification_outbox"
+                + " WHERE (delivered_at IS NOT NULL AND delivered_at < ?)"
+                + " OR (delivered_at IS NULL AND attempts >= ? AND created_at < ?) LIMIT ?)",
+                before, maxAttempts, before, limit);
+    }
+
+    public record Entry(Long id, Long notificationId, Long userId, NotificationType type, String payload,
+                        String broadcastId) {
+
+        public static Entry of(Long notificationId, Long userId, NotificationType type, String payload,
+                               String broadcastId) {
+            return new Entry(null, notificationId, userId, type, payload, broadcastId);
+        }
+    }
+}
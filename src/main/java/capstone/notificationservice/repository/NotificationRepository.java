@@ -1,21 +1,107 @@
 package capstone.notificationservice.repository;
 
+import capstone.notificationservice.dto.NotificationDTO;
 import capstone.notificationservice.entity.Notification;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface NotificationRepository extends JpaRepository<Notification, String> {
+public interface NotificationRepository extends JpaRepository<Notification, String>, NotificationRepositoryCustom {
 
-    Page<Notification> findByUserIdOrderByCreatedAtDesc(Long userId, Pageable pageable);
+    /**
+     * Bounded below by {@code created_at} so Postgres prunes partitions past retention, and
+     * projected straight into the DTO, with no managed entities or dirty checking.
+     */
+    @Query(value = """
+            select new capstone.notificationservice.dto.NotificationDTO(
+                n.id, n.userId, n.title, n.message, n.type, n.read, n.createdAt, n.readAt, n.imageUrl)
+            from Notification n
+            where n.userId = :userId and n.createdAt >= :since
+            order by n.createdAt desc
+            """,
+            countQuery = "select count(n) from Notification n where n.userId = :userId and n.createdAt >= :since")
+    Page<NotificationDTO> findRecentByUserId(@Param("userId") Long userId,
+                                             @Param("since") LocalDateTime since,
+                                             Pageable pageable);
 
-    long countByUserIdAndReadFalse(Long userId);
+    @Query("""
+            select new capstone.notificationservice.dto.NotificationDTO(
+                n.id, n.userId, n.title, n.message, n.type, n.read, n.createdAt, n.readAt, n.imageUrl)
+            from Notification n
+            where n.userId = :userId
+              and n.createdAt >= :since
+            order by n.createdAt desc, n.id desc
+            """)
+    List<NotificationDTO> findFirstSlice(@Param("userId") Long userId,
+                                         @Param("since") LocalDateTime since,
+                                         Pageable pageable);
 
-    List<Notification> findByUserIdAndReadFalse(Long userId);
+    @Query("""
+            select new capstone.notificationservice.dto.NotificationDTO(
+                n.id, n.userId, n.title, n.message, n.type, n.read, n.createdAt, n.readAt, n.imageUrl)
+            from Notification n
+            where n.userId = :userId
+              and n.createdAt >= :since
+              and n.createdAt <= :createdAt
+              and (n.createdAt < :createdAt or n.id < :id)
+            order by n.createdAt desc, n.id desc
+            """)
+    List<NotificationDTO> findSliceAfter(@Param("userId") Long userId,
+                                         @Param("since") LocalDateTime since,
+                                         @Param("createdAt") LocalDateTime createdAt,
+                                         @Param("id") Long id,
+                                         Pageable pageable);
+
+    @Query("select n from Notification n where n.id = :id and n.createdAt >= :since")
+    Optional<Notification> findVisibleById(@Param("id") Long id, @Param("since") LocalDateTime since);
+
+    @Query("select count(n) from Notification n where n.userId = :userId and n.read = false and n.createdAt >= :since")
+    long countUnread(@Param("userId") Long userId, @Param("since") LocalDateTime since);
+
+    @Query("""
+            select n.userId, count(n) from Notification n
+            where n.userId in :userIds and n.read = false and n.createdAt >= :since
+            group by n.userId
+            """)
+    List<Object[]> countUnreadByUserIds(@Param("userIds") List<Long> userIds, @Param("since") LocalDateTime since);
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+            update Notification n set n.read = true, n.readAt = :readAt
+            where n.userId = :userId
+              and n.read = false
+              and n.createdAt >= :since
+            """)
+    int markAllAsRead(@Param("userId") Long userId,
+                      @Param("since") LocalDateTime since,
+                      @Param("readAt") LocalDateTime readAt);
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+            update Notification n set n.read = true, n.readAt = :readAt
+            where n.userId = :userId
+              and n.read = false
+              and n.createdAt >= :since
+              and n.createdAt <= :createdAt
+              and (n.createdAt < :createdAt or n.id <= :id)
+            """)
+    int markAsReadUpTo(@Param("userId") Long userId,
+                       @Param("since") LocalDateTime since,
+                       @Param("createdAt") LocalDateTime createdAt,
+                       @Param("id") Long id,
+                       @Param("readAt") LocalDateTime readAt);
 
     List<Notification> findByUserId(Long userId);
 }
@@ -0,0 +1,13 @@
+package capstone.notificationservice.repository;
+
+import capstone.notificationservice.entity.Notification;
+
+import java.util.List;
+
+public interface NotificationRepositoryCustom {
+
+    /**
+     * Inserts all notifications with multi-row INSERT statements and fills in the generated IDs.
+     */
+    List<Notification> insertAll(List<Notification> notifications);
+}
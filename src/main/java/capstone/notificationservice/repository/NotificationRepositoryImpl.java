@@ -0,0 +1,62 @@
+package capstone.notificationservice.repository;
+
+import capstone.notificationservice.entity.Notification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+
+public class NotificationRepositoryImpl implements NotificationRepositoryCustom {
+
+    // PostgreSQL caps a statement at 32767 bind parameters, 7 are bound per row
+    private static final int MAX_ROWS_PER_STATEMENT = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String schema;
+
+    public NotificationRepositoryImpl(JdbcTemplate jdbcTemplate,
+                                      @Value("${spring.jpa.properties.hibernate.default_schema:notification_service}") String schema) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.schema = schema;
+    }
+
+    @Override
+    public List<Notification> insertAll(List<Notification> notifications) {
+        for (int from = 0; from < notifications.size(); from += MAX_ROWS_PER_STATEMENT) {
+            List<Notification> chunk = notifications.subList(from, Math.min(from + MAX_ROWS_PER_STATEMENT, notifications.size()));
+            insertChunk(chunk);
+        }
+        return notifications;
+    }
+
+    private void insertChunk(List<Notification> chunk) {
+        StringBuilder sql = new StringBuilder("INSERT INTO ")
+                .append(schema)
+                .append(".notifications (user_id, title, message, type, is_read, created_at, image_url) VALUES ");
+        for (int i = 0; i < chunk.size(); i++) {
+            sql.append(i == 0 ? "" : ", ").append("(?, ?, ?, ?, ?, ?, ?)");
+        }
+        sql.append(" RETURNING id");
+
+        List<Long> ids = jdbcTemplate.query(sql.toString(), ps -> bind(ps, chunk), (rs, rowNum) -> rs.getLong("id"));
+
+        for (int i = 0; i < chunk.size(); i++) {
+            chunk.get(i).setId(ids.get(i));
+        }
+    }
+
+    private void bind(PreparedStatement ps, List<Notification> chunk) throws SQLException {
+        int index = 1;
+        for (Notification notification : chunk) {
+            ps.setLong(index++, notification.getUserId());
+            ps.setString(index++, notification.getTitle());
+            ps.setString(index++, notification.getMessage());
+            ps.setString(index++, notification.getType() != null ? notification.getType().name() : null);
+            ps.setBoolean(index++, notification.isRead());
+            ps.setObject(index++, notification.getCreatedAt());
+            ps.setString(index++, notification.getImageUrl());
+        }
+    }
+}
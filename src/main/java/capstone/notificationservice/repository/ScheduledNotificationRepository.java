@@ -0,0 +1,118 @@
+package capstone.notificationservice.repository;
+
+import capstone.notificationservice.entity.Notification;
+import capstone.notificationservice.enums.NotificationType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public class ScheduledNotificationRepository {
+
+    // 7 parameters per row, well below the PostgreSQL bind parameter cap
+    private static final int MAX_ROWS_PER_STATEMENT = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String schema;
+
+    public ScheduledNotificationRepository(JdbcTemplate jdbcTemplate,
+                                           @Value("${spring.jpa.properties.hibernate.default_schema:notification_service}") String schema) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.schema = schema;
+    }
+
+    public void insertAll(String scheduleKey, List<Notification> notifications, LocalDateTime deliverAt) {
+        for (int from = 0; from < notifications.size(); from += MAX_ROWS_PER_STATEMENT) {
+            List<Notification> chunk = notifications.subList(from, Math.min(from + MAX_ROWS_PER_STATEMENT, notifications.size()));
+
+            StringBuilder sql = new StringBuilder("INSERT INTO ")
+                    .append(schema)
+                    .append(".scheduled_notifications (schedule_key, user_id, title, message, type, image_url, deliver_at) VALUES ");
+            Object[] args = new Object[chunk.size() * 7];
+            int index = 0;
+            for (int i = 0; i < chunk.size(); i++) {
+                Notification notification = chunk.get(i);
+                sql.append(i == 0 ? "" : ", ").append("(?, ?, ?, ?, ?, ?, ?)");
+                args[index++] = scheduleKey;
+                args[index++] = notification.getUserId();
+                args[index++] = notification.getTitle();
+                args[index++] = notification.getMessage();
+                args[index++] = notification.getType() != null ? notification.getType().name() : null;
+                args[index++] = notification.getImageUrl();
+                args[index++] = deliverAt;
+            }
+            jdbcTemplate.update(sql.toString(), args);
+        }
+    }
+
+    private static final String DUE = " deliver_at <= ? AND failed_at IS NULL"
+            + " AND (next_attempt_at IS NULL OR next_attempt_at <= ?)";
+
+    /**
+     * Deletes and returns the oldest due rows. Rows locked by another replica are skipped, and
+     * the deletion only sticks if the surrounding transaction commits.
+     */
+    public List<Notification> takeDue(LocalDateTime now, int limit) {
+        return jdbcTemplate.query("DELETE FROM " + schema + ".scheduled_notifications WHERE id IN ("
+                        + "SELECT id FROM " + schema + ".scheduled_notifications WHERE" + DUE
+                        + " ORDER BY deliver_at, id LIMIT ? FOR UPDATE SKIP LOCKED)"
+                        + " RETURNING user_id, title, message, type, image_url",
+                this::mapNotification, now, now, limit);
+    }
+
+    public List<Long> findDueIds(LocalDateTime now, int limit) {
+        return jdbcTemplate.queryForList("SELECT id FROM " + schema + ".scheduled_notifications WHERE" + DUE
+                + " ORDER BY deliver_at, id LIMIT ?", Long.class, now, now, limit);
+    }
+
+    /**
+     * Single-row variant of {@link #takeDue}; empty when the row is gone or locked elsewhere.
+     */
+    public List<Notification> takeById(Long id, LocalDateTime now) {
+        return jdbcTemplate.query("DELETE FROM " + schema + ".scheduled_notifications WHERE id IN ("
+                        + "SELECT id FROM " + schema + ".scheduled_notifications WHERE id = ? AND" + DUE
+                        + " FOR UPDATE SKIP LOCKED)"
+                        + " RETURNING user_id, title, message, type, image_url",
+                this::mapNotification, id, now, now);
+    }
+
+    /**
+     * Counts a failed release and backs the row off by {@code backoffSeconds * 2^attempts}; a row
+     * reaching {@code maxAttempts} is set aside with {@code failed_at} and no longer polled.
+     * Returns true when the row was set aside.
+     */
+    public boolean recordFailure(Long id, LocalDateTime now, String error, int maxAttempts, long backoffSeconds) {
+        List<Boolean> setAside = jdbcTemplate.queryForList("UPDATE " + schema + ".scheduled_notifications"
+                        + " SET attempts = attempts + 1, last_error = ?,"
+                        + " next_attempt_at = ? + make_interval(secs => ? * power(2, attempts)),"
+                        + " failed_at = CASE WHEN attempts + 1 >= ? THEN ?::timestamp END"
+                        + " WHERE id = ? RETURNING failed_at IS NOT NULL",
+                Boolean.class, error, now, backoffSeconds, maxAttempts, now, id);
+        return !setAside.isEmpty() && Boolean.TRUE.equals(setAside.get(0));
+    }
+
+    private Notification mapNotification(ResultSet rs, int rowNum) throws SQLException {
+        return Notification.builder()
+                .userId(rs.getLong("user_id"))
+                .title(rs.getString("title"))
+                .message(rs.getString("message"))
+                .type(rs.getString("type") != null ? NotificationType.valueOf(rs.getString("type")) : null)
+                .imageUrl(rs.getString("image_url"))
+                .build();
+    }
+
+    public int deleteByScheduleKey(String scheduleKey) {
+        return jdbcTemplate.update("DELETE FROM " + schema + ".scheduled_notifications WHERE schedule_key = ?", scheduleKey);
+    }
+
+    public long countDue(LocalDateTime now) {
+        Long count = jdbcTemplate.queryForObject("SELECT count(*) FROM " + schema + ".scheduled_notifications"
+                + " WHERE deliver_at <= ? AND failed_at IS NULL", Long.class, now);
+        return count == null ? 0 : count;
+    }
+}
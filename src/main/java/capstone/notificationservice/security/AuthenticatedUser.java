@@ -0,0 +1,42 @@
+package capstone.notificationservice.security;
+
+import io.jsonwebtoken.Claims;
+import org.springframework.security.core.AuthenticatedPrincipal;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.List;
+
+/**
+ * Principal built once from verified JWT claims and stored in the SecurityContext,
+ * so the rest of the request never has to parse the token again.
+ */
+public record AuthenticatedUser(String email,
+                                Long userId,
+                                boolean isOrganization,
+                                Long organizationId,
+                                List<SimpleGrantedAuthority> authorities) implements AuthenticatedPrincipal {
+
+    public static AuthenticatedUser from(Claims claims) {
+        List<?> rawRoles = claims.get("roles", List.class);
+        List<SimpleGrantedAuthority> authorities = rawRoles == null ? List.of() : rawRoles.stream()
+                .map(Object::toString)
+                .map(r -> new SimpleGrantedAuthority(r.startsWith("ROLE_") ? r : "ROLE_" + r))
+                .toList();
+
+        return new AuthenticatedUser(
+                claims.getSubject(),
+                claims.get("userId", Long.class),
+                Boolean.TRUE.equals(claims.get("isOrganization", Boolean.class)),
+                claims.get("organizationId", Long.class),
+                authorities);
+    }
+
+    public TokenMetaData toTokenMetaData() {
+        return new TokenMetaData(userId, isOrganization, organizationId);
+    }
+
+    @Override
+    public String getName() {
+        return email;
+    }
+}
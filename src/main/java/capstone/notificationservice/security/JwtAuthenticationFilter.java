@@ -1,6 +1,5 @@
 package capstone.notificationservice.security;
 
-import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -9,14 +8,12 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.List;
 
 @Component
 @RequiredArgsConstructor
@@ -46,22 +43,14 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         String jwt = authHeader.substring(7);
 
         try {
-            Claims claims = jwtService.extractAllClaims(jwt);
-            String email = claims.getSubject();
+            AuthenticatedUser user = jwtService.verify(jwt);
 
-            List<?> rawRoles = claims.get("roles", List.class);
-            List<String> roles = rawRoles.stream()
-                    .map(Object::toString)
-                    .toList();
-
-            if (email != null && SecurityContextHolder.getContext().getAuthentication() == null && !jwtService.isTokenExpired(jwt)) {
+            if (user.email() != null && SecurityContextHolder.getContext().getAuthentication() == null) {
                 UsernamePasswordAuthenticationToken authToken =
                         new UsernamePasswordAuthenticationToken(
-                                email,
+                                user,
                                 null,
-                                roles.stream()
-                                        .map(r -> new SimpleGrantedAuthority(r.startsWith("ROLE_") ? r : "ROLE_" + r))
-                                        .toList()
+                                user.authorities()
                         );
 
                 authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
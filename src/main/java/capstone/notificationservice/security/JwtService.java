@@ -1,14 +1,23 @@
 package capstone.notificationservice.security;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 
 @Service
@@ -17,6 +26,24 @@ public class JwtService {
     @Value("${spring.security.jwt.secret-key}")
     private String secretKey;
 
+    @Value("${spring.security.jwt.verified-cache.max-size:10000}")
+    private int verifiedCacheMaxSize;
+
+    @Value("${spring.security.jwt.verified-cache.max-ttl-ms:300000}")
+    private long verifiedCacheMaxTtlMs;
+
+    private JwtParser parser;
+
+    private final Map<String, VerifiedToken> verifiedTokens = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        parser = Jwts
+                .parserBuilder()
+                .setSigningKey(getSignInKey())
+                .build();
+    }
+
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
         final Claims claims = extractAllClaims(token);
         return claimsResolver.apply(claims);
@@ -31,16 +58,67 @@ public class JwtService {
     }
 
     public Claims extractAllClaims(String token) {
-        return Jwts
-                .parserBuilder()
-                .setSigningKey(getSignInKey())
-                .build()
+        return parser
                 .parseClaimsJws(token)
                 .getBody();
     }
 
+    /**
+     * Verifies the token and returns its principal. Verified tokens are cached by hash until
+     * they expire (capped at the configured TTL), so hot tokens skip the HMAC check and the
+     * JSON parsing. Expired or tampered tokens throw like {@link #extractAllClaims(String)}.
+     */
+    public AuthenticatedUser verify(String token) {
+        String cacheKey = hash(token);
+        long now = System.currentTimeMillis();
+
+        VerifiedToken cached = verifiedTokens.get(cacheKey);
+        if (cached != null) {
+            if (cached.expiresAt() > now) {
+                return cached.user();
+            }
+            verifiedTokens.remove(cacheKey);
+        }
+
+        Claims claims = extractAllClaims(token);
+        AuthenticatedUser user = AuthenticatedUser.from(claims);
+
+        long expiresAt = now + verifiedCacheMaxTtlMs;
+        if (claims.getExpiration() != null) {
+            expiresAt = Math.min(expiresAt, claims.getExpiration().getTime());
+        }
+
+        if (verifiedTokens.size() >= verifiedCacheMaxSize) {
+            evict(now);
+        }
+        verifiedTokens.put(cacheKey, new VerifiedToken(user, expiresAt));
+        return user;
+    }
+
+    private void evict(long now) {
+        verifiedTokens.values().removeIf(entry -> entry.expiresAt() <= now);
+
+        // still full of live tokens, drop arbitrary entries down to 90% capacity
+        Iterator<String> keys = verifiedTokens.keySet().iterator();
+        while (verifiedTokens.size() >= verifiedCacheMaxSize * 9 / 10 && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+        }
+    }
+
+    private String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
     private Key getSignInKey() {
         byte[] keyBytes = Decoders.BASE64.decode(secretKey);
         return Keys.hmacShaKeyFor(keyBytes);
     }
-}
\ No newline at end of file
+
+    private record VerifiedToken(AuthenticatedUser user, long expiresAt) {}
+}
@@ -1,8 +1,11 @@
 package capstone.notificationservice.security;
 
-import io.jsonwebtoken.Claims;
+import capstone.notificationservice.exception.AppException;
+import capstone.notificationservice.exception.ErrorCode;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 
 @Component
@@ -12,17 +15,20 @@ public class JwtUtil {
     private final HttpServletRequest request;
 
     public TokenMetaData getDataFromAuth() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser user) {
+            return user.toTokenMetaData();
+        }
+
         String token = null;
         String header = request.getHeader("Authorization");
         if (header != null && header.startsWith("Bearer ")) {
             token =header.substring(7);
         }
+        if (token == null) {
+            throw new AppException(ErrorCode.UNAUTHORIZED);
+        }
 
-        Claims claims = jwtService.extractAllClaims(token);
-        Long userId = claims.get("userId", Long.class);
-        Boolean isOrganization = claims.get("isOrganization", Boolean.class);
-        Long organizationId = claims.get("organizationId", Long.class);
-
-        return new TokenMetaData(userId, isOrganization, organizationId);
+        return jwtService.verify(token).toTokenMetaData();
     }
 }
@@ -0,0 +1,60 @@
+package capstone.notificationservice.security;
+
+import capstone.notificationservice.exception.AppException;
+import capstone.notificationservice.exception.ErrorCode;
+import io.jsonwebtoken.JwtException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+
+/**
+ * Authenticates STOMP CONNECT frames and names the session principal after the userId, which is
+ * what user destinations and the relay key on. The token comes from the CONNECT
+ * {@code Authorization} header, or from the handshake when it was already authenticated.
+ */
+@Component
+@RequiredArgsConstructor
+public class StompAuthChannelInterceptor implements ChannelInterceptor {
+
+    private final JwtService jwtService;
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || !StompCommand.CONNECT.equals(accessor.getCommand())) {
+            return message;
+        }
+
+        AuthenticatedUser user = resolveUser(accessor);
+        if (user.userId() == null) {
+            throw new AppException(ErrorCode.UNAUTHORIZED);
+        }
+
+        accessor.setUser(new UsernamePasswordAuthenticationToken(user.userId().toString(), null, user.authorities()));
+        return message;
+    }
+
+    private AuthenticatedUser resolveUser(StompHeaderAccessor accessor) {
+        String header = accessor.getFirstNativeHeader("Authorization");
+        if (header != null && header.startsWith("Bearer ")) {
+            try {
+                return jwtService.verify(header.substring(7));
+            } catch (JwtException | IllegalArgumentException e) {
+                throw new AppException(ErrorCode.UNAUTHORIZED, "Invalid token", e);
+            }
+        }
+
+        if (accessor.getUser() instanceof Authentication auth && auth.getPrincipal() instanceof AuthenticatedUser user) {
+            return user;
+        }
+
+        throw new AppException(ErrorCode.UNAUTHORIZED);
+    }
+}
@@ -0,0 +1,113 @@
+package capstone.notificationservice.service;
+
+import capstone.notificationservice.dto.BroadcastProgressDTO;
+import capstone.notificationservice.exception.AppException;
+import capstone.notificationservice.exception.ErrorCode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Broadcast progress kept in Redis. Insert progress moves as chunks are committed by the fan-out;
+ * push progress moves as the outbox dispatcher actually sends the rows, to a live session or to
+ * the offline replay buffer, so it trails the inserts and a redelivered row counts again.
+ */
+@Component
+public class BroadcastProgressTracker {
+
+    private static final String KEY_PREFIX = "notification:broadcast:";
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final Duration progressTtl;
+
+    public BroadcastProgressTracker(RedisTemplate<String, Object> redisTemplate,
+                                    @Value("${app.broadcast.progress-ttl:7d}") Duration progressTtl) {
+        this.redisTemplate = redisTemplate;
+        this.progressTtl = progressTtl;
+    }
+
+    public void started(String broadcastId, int total, int chunks) {
+        String key = key(broadcastId);
+        redisTemplate.opsForHash().putAll(key, Map.of(
+                "status", "RUNNING",
+                "total", total,
+                "chunks", chunks));
+        redisTemplate.opsForHash().putIfAbsent(key, "startedAt", LocalDateTime.now().toString());
+        redisTemplate.opsForHash().putIfAbsent(key, "inserted", 0);
+        redisTemplate.opsForHash().putIfAbsent(key, "pushed", 0);
+        redisTemplate.expire(key, progressTtl);
+    }
+
+    public boolean isChunkDone(String broadcastId, int index) {
+        return Boolean.TRUE.equals(redisTemplate.opsForSet().isMember(chunksKey(broadcastId), String.valueOf(index)));
+    }
+
+    /**
+     * {@code users} is zero when another run had already inserted the chunk.
+     */
+    public void chunkDone(String broadcastId, int index, int users) {
+        String chunksKey = chunksKey(broadcastId);
+        redisTemplate.opsForSet().add(chunksKey, String.valueOf(index));
+        redisTemplate.expire(chunksKey, progressTtl);
+        if (users > 0) {
+            redisTemplate.opsForHash().increment(key(broadcastId), "inserted", users);
+        }
+    }
+
+    public void pushed(Map<String, Long> pushedByBroadcast) {
+        pushedByBroadcast.forEach((broadcastId, pushed) -> {
+            String key = key(broadcastId);
+            redisTemplate.opsForHash().increment(key, "pushed", pushed);
+            redisTemplate.expire(key, progressTtl);
+        });
+    }
+
+    public void failed(String broadcastId, String error) {
+        redisTemplate.opsForHash().putAll(key(broadcastId), Map.of(
+                "status", "FAILED",
+                "error", String.valueOf(error)));
+    }
+
+    public void completed(String broadcastId) {
+        redisTemplate.opsForHash().putAll(key(broadcastId), Map.of(
+                "status", "COMPLETED",
+                "completedAt", LocalDateTime.now().toString()));
+        redisTemplate.delete(chunksKey(broadcastId));
+    }
+
+    public BroadcastProgressDTO get(String broadcastId) {
+        Map<Object, Object> progress = redisTemplate.opsForHash().entries(key(broadcastId));
+        if (progress.isEmpty()) {
+            throw new AppException(ErrorCode.RESOURCE_NOT_FOUND, "Broadcast not found");
+        }
+
+        Long completedChunks = redisTemplate.opsForSet().size(chunksKey(broadcastId));
+        int chunks = Integer.parseInt(String.valueOf(progress.getOrDefault("chunks", 0)));
+        boolean completed = "COMPLETED".equals(progress.get("status"));
+
+        return BroadcastProgressDTO.builder()
+                .broadcastId(broadcastId)
+                .status(String.valueOf(progress.get("status")))
+                .total(Long.parseLong(String.valueOf(progress.getOrDefault("total", 0))))
+                .inserted(Long.parseLong(String.valueOf(progress.getOrDefault("inserted", 0))))
+                .pushed(Long.parseLong(String.valueOf(progress.getOrDefault("pushed", 0))))
+                .chunks(chunks)
+                .completedChunks(completed ? chunks : completedChunks == null ? 0 : completedChunks.intValue())
+                .startedAt((String) progress.get("startedAt"))
+                .completedAt((String) progress.get("completedAt"))
+                .error((String) progress.get("error"))
+                .build();
+    }
+
+    private static String key(String broadcastId) {
+        return KEY_PREFIX + broadcastId;
+    }
+
+    private static String chunksKey(String broadcastId) {
+        return key(broadcastId) + ":chunks";
+    }
+}
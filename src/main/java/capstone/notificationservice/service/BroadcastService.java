@@ -0,0 +1,179 @@
+package capstone.notificationservice.service;
+
+import capstone.notificationservice.dto.BroadcastProgressDTO;
+import capstone.notificationservice.entity.Notification;
+import capstone.notificationservice.enums.NotificationType;
+import capstone.notificationservice.event.BroadcastEvent;
+import capstone.notificationservice.repository.BroadcastChunkRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Fans one broadcast out to its whole audience. The audience is resolved once, sorted, stored in
+ * broadcast_audiences and cut into fixed chunks; a rerun chunks the stored snapshot, so a chunk
+ * index always means the same users even after the live audience set changed. Chunks are
+ * inserted with multi-row INSERTs in parallel and pushed by the outbox dispatcher. Each chunk is
+ * claimed in the broadcast_chunks ledger in the same transaction as its notifications, so a rerun
+ * of the broadcast, even one racing a still-running fan-out, skips chunks already inserted
+ * instead of notifying anyone twice. Progress reports inserts and pushes separately.
+ */
+@Slf4j
+@Service
+public class BroadcastService {
+
+    private final NotificationService notificationService;
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final BroadcastChunkRepository broadcastChunkRepository;
+    private final BroadcastProgressTracker progressTracker;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final Duration progressTtl;
+    private final ExecutorService chunkExecutor;
+
+    public BroadcastService(NotificationService notificationService,
+                            RedisTemplate<String, Object> redisTemplate,
+                            BroadcastChunkRepository broadcastChunkRepository,
+                            BroadcastProgressTracker progressTracker,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${app.broadcast.chunk-size:1000}") int chunkSize,
+                            @Value("${app.broadcast.parallelism:4}") int parallelism,
+                            @Value("${app.broadcast.progress-ttl:7d}") Duration progressTtl) {
+        this.notificationService = notificationService;
+        this.redisTemplate = redisTemplate;
+        this.broadcastChunkRepository = broadcastChunkRepository;
+        this.progressTracker = progressTracker;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.progressTtl = progressTtl;
+        this.chunkExecutor = Executors.newFixedThreadPool(parallelism,
+                Thread.ofPlatform().name("broadcast-chunk-", 0).daemon(true).factory());
+    }
+
+    public void fanOut(BroadcastEvent event, String broadcastId) {
+        List<Long> audience = broadcastChunkRepository.findAudience(broadcastId)
+                .orElseGet(() -> broadcastChunkRepository.snapshotAudience(broadcastId, resolveAudience(event)));
+        List<List<Long>> chunks = new ArrayList<>((audience.size() + chunkSize - 1) / chunkSize);
+        for (int from = 0; from < audience.size(); from += chunkSize) {
+            chunks.add(audience.subList(from, Math.min(from + chunkSize, audience.size())));
+        }
+
+        progressTracker.started(broadcastId, audience.size(), chunks.size());
+        log.info("Broadcast {} fanning out to {} user(s) in {} chunk(s)", broadcastId, audience.size(), chunks.size());
+
+        List<CompletableFuture<Void>> futures = new ArrayList<>(chunks.size());
+        for (int i = 0; i < chunks.size(); i++) {
+            int index = i;
+            List<Long> chunk = chunks.get(i);
+            if (progressTracker.isChunkDone(broadcastId, index)) {
+                continue;
+            }
+            futures.add(CompletableFuture.supplyAsync(() -> deliverChunk(broadcastId, index, event, chunk), chunkExecutor)
+                    .thenAccept(inserted -> progressTracker.chunkDone(broadcastId, index, inserted ? chunk.size() : 0)));
+        }
+
+        try {
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+        } catch (Exception e) {
+            progressTracker.failed(broadcastId, e.getCause() != null ? e.getCause().getMessage() : e.getMessage());
+            throw e;
+        }
+
+        progressTracker.completed(broadcastId);
+        log.info("Broadcast {} inserted for {} user(s)", broadcastId, audience.size());
+    }
+
+    public BroadcastProgressDTO getProgress(String broadcastId) {
+        return progressTracker.get(broadcastId);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        chunkExecutor.shutdown();
+    }
+
+    @Scheduled(initialDelayString = "${app.broadcast.ledger-purge-interval-ms:3600000}",
+            fixedDelayString = "${app.broadcast.ledger-purge-interval-ms:3600000}")
+    public void purgeChunkLedger() {
+        try {
+            LocalDateTime before = LocalDateTime.now().minus(progressTtl);
+            int deleted = broadcastChunkRepository.deleteDeliveredBefore(before);
+            int audiences = broadcastChunkRepository.deleteAudiencesBefore(before);
+            if (deleted > 0 || audiences > 0) {
+                log.info("Purged {} broadcast chunk ledger rows and {} audience snapshots", deleted, audiences);
+            }
+        } catch (Exception e) {
+            log.error("Broadcast chunk ledger purge failed", e);
+        }
+    }
+
+    /**
+     * Returns false when another run already inserted the chunk.
+     */
+    private boolean deliverChunk(String broadcastId, int index, BroadcastEvent event, List<Long> userIds) {
+        Boolean delivered = transactionTemplate.execute(status -> {
+            if (!broadcastChunkRepository.claim(broadcastId, index)) {
+                log.info("Broadcast {} chunk {} already delivered, skipping", broadcastId, index);
+                return false;
+            }
+            insertChunk(broadcastId, event, userIds);
+            return true;
+        });
+        return Boolean.TRUE.equals(delivered);
+    }
+
+    private void insertChunk(String broadcastId, BroadcastEvent event, List<Long> userIds) {
+        NotificationType type = event.getType() != null ? event.getType() : NotificationType.SYSTEM;
+        LocalDateTime now = LocalDateTime.now();
+
+        List<Notification> notifications = new ArrayList<>(userIds.size());
+        for (Long userId : userIds) {
+            notifications.add(Notification.builder()
+                    .userId(userId)
+                    .title(event.getTitle())
+                    .message(event.getMessage())
+                    .type(type)
+                    .read(false)
+                    .createdAt(now)
+                    .imageUrl(event.getImageUrl())
+                    .build());
+        }
+
+        notificationService.createAndSendNotifications(notifications, broadcastId);
+    }
+
+    /**
+     * Sorted and de-duplicated. Only the first run resolves it; reruns chunk the stored snapshot.
+     */
+    private List<Long> resolveAudience(BroadcastEvent event) {
+        TreeSet<Long> audience = new TreeSet<>();
+        if (event.getUserIds() != null) {
+            audience.addAll(event.getUserIds());
+        }
+
+        if (event.getAudienceKey() != null && !event.getAudienceKey().isBlank()) {
+            ScanOptions options = ScanOptions.scanOptions().count(chunkSize).build();
+            try (Cursor<Object> members = redisTemplate.opsForSet().scan(event.getAudienceKey(), options)) {
+                members.forEachRemaining(member -> audience.add(Long.valueOf(member.toString())));
+            }
+        }
+
+        return new ArrayList<>(audience);
+    }
+}
@@ -0,0 +1,85 @@
+package capstone.notificationservice.service;
+
+import capstone.notificationservice.consumer.RedisStreamConsumer;
+import capstone.notificationservice.consumer.RetryScheduler;
+import capstone.notificationservice.dto.DeadLetterDTO;
+import capstone.notificationservice.exception.AppException;
+import capstone.notificationservice.exception.ErrorCode;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.Limit;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DeadLetterService {
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final RedisStreamConsumer redisStreamConsumer;
+    private final RetryScheduler retryScheduler;
+
+    public List<DeadLetterDTO> getDeadLetters(String streamKey, int count) {
+        return readDeadLetters(streamKey, List.of(), count).stream()
+                .map(this::toDTO)
+                .toList();
+    }
+
+    public int replay(String streamKey, List<String> ids, int count) {
+        List<MapRecord<String, Object, Object>> records = readDeadLetters(streamKey, ids, count);
+        String deadLetterKey = retryScheduler.deadLetterKey(streamKey);
+
+        records.forEach(record -> {
+            Map<String, String> body = new LinkedHashMap<>();
+            record.getValue().forEach((field, value) -> {
+                if (!RetryScheduler.DEAD_LETTER_FIELDS.contains(String.valueOf(field))) {
+                    body.put(String.valueOf(field), String.valueOf(value));
+                }
+            });
+
+            redisTemplate.opsForStream().add(streamKey, body);
+            redisTemplate.opsForStream().delete(deadLetterKey, record.getId());
+        });
+
+        log.info("Replayed {} dead-lettered record(s) onto stream '{}'", records.size(), streamKey);
+        return records.size();
+    }
+
+    private List<MapRecord<String, Object, Object>> readDeadLetters(String streamKey, List<String> ids, int count) {
+        if (!redisStreamConsumer.getStreamKeys().contains(streamKey)) {
+            throw new AppException(ErrorCode.BAD_REQUEST, "Unknown stream: " + streamKey);
+        }
+
+        String deadLetterKey = retryScheduler.deadLetterKey(streamKey);
+
+        if (ids == null || ids.isEmpty()) {
+            return redisTemplate.opsForStream().range(deadLetterKey, Range.unbounded(), Limit.limit().count(count));
+        }
+
+        List<MapRecord<String, Object, Object>> records = new ArrayList<>();
+        ids.forEach(id -> records.addAll(redisTemplate.opsForStream().range(deadLetterKey, Range.closed(id, id))));
+        return records;
+    }
+
+    private DeadLetterDTO toDTO(MapRecord<String, Object, Object> record) {
+        Map<Object, Object> body = record.getValue();
+        return DeadLetterDTO.builder()
+                .id(record.getId().getValue())
+                .originalStream(String.valueOf(body.get("originalStream")))
+                .originalId(String.valueOf(body.get(RetryScheduler.ORIGINAL_ID_FIELD)))
+                .attempts(Integer.parseInt(String.valueOf(body.getOrDefault("attempts", "0"))))
+                .errorType(String.valueOf(body.get("errorType")))
+                .error(String.valueOf(body.get("error")))
+                .failedAt(String.valueOf(body.get("failedAt")))
+                .payload(String.valueOf(body.get(RetryScheduler.PAYLOAD_FIELD)))
+                .build();
+    }
+}
@@ -1,8 +1,11 @@
 package capstone.notificationservice.service;
 
+import capstone.notificationservice.enums.MailLane;
+import capstone.notificationservice.enums.NotificationType;
 import capstone.notificationservice.event.OrderConfirmEvent;
 import capstone.notificationservice.exception.AppException;
 import capstone.notificationservice.exception.ErrorCode;
+import capstone.notificationservice.mail.AsyncMailSender;
 import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
 import lombok.RequiredArgsConstructor;
@@ -11,16 +14,19 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
-import org.thymeleaf.TemplateEngine;
 import org.thymeleaf.context.Context;
 
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class EmailService {
 
-    private final TemplateEngine templateEngine;
+    private final TemplateRenderer templateRenderer;
     private final JavaMailSender mailSender;
+    private final AsyncMailSender asyncMailSender;
 
     @Value("${spring.mail.username}")
     private String fromEmail;
@@ -28,9 +34,11 @@ public class EmailService {
     @Value("${app.from-name:}")
     private String fromName;
 
-    public void sendHtmlEmail(String toEmail, String subject, String htmlContent) {
+    public CompletableFuture<Void> sendHtmlEmail(String toEmail, String subject, String htmlContent,
+                                                 NotificationType type, MailLane lane, Instant origin) {
+        MimeMessage message;
         try {
-            MimeMessage message = mailSender.createMimeMessage();
+            message = mailSender.createMimeMessage();
             MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
 
             helper.setFrom(fromEmail, fromName);
@@ -38,41 +46,47 @@ public class EmailService {
             helper.setSubject(subject);
             helper.setText(htmlContent, true);
 
-            mailSender.send(message);
-            log.info("HTML email sent successfully to: {}", toEmail);
-
         } catch (MessagingException e) {
-            log.error("MessagingException while sending HTML email to {}: {}", toEmail, e.getMessage());
+            log.error("MessagingException while building HTML email to {}: {}", toEmail, e.getMessage());
             throw new AppException(ErrorCode.MESSAGE_ERROR, "Failed to send HTML email", e);
         } catch (Exception e) {
-            log.error("Unexpected error while sending HTML email to {}: {}", toEmail, e.getMessage());
+            log.error("Unexpected error while building HTML email to {}: {}", toEmail, e.getMessage());
             throw new AppException(ErrorCode.INTERNAL_SERVER_ERROR, "Unexpected error while sending HTML email", e);
         }
+
+        return asyncMailSender.send(message, type, lane, origin)
+                .whenComplete((ignored, e) -> {
+                    if (e == null) {
+                        log.info("HTML email sent successfully to: {}", toEmail);
+                    } else {
+                        log.error("Error while sending HTML email to {}: {}", toEmail, e.getMessage());
+                    }
+                });
     }
 
-    public void sendOtpEmail(String toEmail, String otpCode) {
+    public CompletableFuture<Void> sendOtpEmail(String toEmail, String otpCode, Instant origin) {
         Context context = new Context();
         context.setVariable("otpCode", otpCode);
         context.setVariable("email", toEmail);
 
-        String htmlContent = templateEngine.process("otp-email", context);
+        String htmlContent = templateRenderer.render(TemplateRenderer.OTP_EMAIL, context);
         String subject = "Mã OTP xác thực - EvoTicket";
-        sendHtmlEmail(toEmail, subject, htmlContent);
+        return sendHtmlEmail(toEmail, subject, htmlContent, NotificationType.OTP, MailLane.OTP, origin);
     }
 
-    public void sendWelcomeEmail(String toEmail, String fullName, String username) {
+    public CompletableFuture<Void> sendWelcomeEmail(String toEmail, String fullName, String username, Instant origin) {
         Context context = new Context();
         context.setVariable("email", toEmail);
         context.setVariable("fullName", fullName);
         context.setVariable("username", username);
 
-        String htmlContent = templateEngine.process("welcome-email", context);
+        String htmlContent = templateRenderer.render(TemplateRenderer.WELCOME_EMAIL, context);
         String subject = "Chào mừng đến với EvoTicket! 🎉";
 
-        sendHtmlEmail(toEmail, subject, htmlContent);
+        return sendHtmlEmail(toEmail, subject, htmlContent, NotificationType.WELCOME, MailLane.BULK, origin);
     }
 
-    public void sendOrderConfirmEmail(OrderConfirmEvent dto) {
+    public CompletableFuture<Void> sendOrderConfirmEmail(OrderConfirmEvent dto, Instant origin) {
         Context context = new Context();
         context.setVariable("email", dto.getEmail());
         context.setVariable("fullName", dto.getFullName());
@@ -107,9 +121,9 @@ public class EmailService {
         context.setVariable("ticketItems", dto.getTicketItems());
 
         String toEmail = dto.getEmail();
-        String htmlContent = templateEngine.process("order-confirm-email", context);
+        String htmlContent = templateRenderer.render(TemplateRenderer.ORDER_CONFIRM_EMAIL, context);
         String subject = "Thanh toán thành công - " + dto.getEventName() + " 🎫";
 
-        sendHtmlEmail(toEmail, subject, htmlContent);
+        return sendHtmlEmail(toEmail, subject, htmlContent, NotificationType.PAYMENT, MailLane.TRANSACTIONAL, origin);
     }
 }
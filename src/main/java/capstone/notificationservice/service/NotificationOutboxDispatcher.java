@@ -0,0 +1,267 @@
+package capstone.notificationservice.service;
+
+import capstone.notificationservice.repository.NotificationOutboxRepository;
+import capstone.notificationservice.websocket.RealtimePublisher;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Drains the notification outbox on a dedicated thread. Each round claims a batch of undelivered
+ * rows by setting a short lease in one statement (SKIP LOCKED, so replicas split the backlog
+ * instead of blocking on each other), pushes them with no transaction or connection held, and
+ * marks the rows whose frame was actually sent delivered with a second UPDATE. Rows whose push
+ * failed or did not complete within half the lease stay undelivered and are retried with
+ * exponential backoff up to {@code max-attempts}. A crash after the push lets the lease expire
+ * and redelivers the batch, which clients already tolerate.
+ * <p>
+ * Writers call {@link #wakeUp()} after commit; the poll interval only bounds latency for rows
+ * committed by another replica or left behind by a failed round.
+ */
+@Slf4j
+@Component
+public class NotificationOutboxDispatcher {
+
+    private final NotificationOutboxRepository outboxRepository;
+    private final RealtimePublisher realtimePublisher;
+    private final BroadcastProgressTracker broadcastProgressTracker;
+    private final Counter delivered;
+    private final Counter failedRounds;
+    private final Counter failedPushes;
+    private final Semaphore signal = new Semaphore(0);
+    private final ExecutorService pushExecutor;
+    private final int pushParallelism;
+    private final int batchSize;
+    private final long pollIntervalMs;
+    private final Duration deliveredRetention;
+    private final int maxAttempts;
+    private final Duration claimLease;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+
+    private volatile boolean running;
+    private Thread worker;
+
+    public NotificationOutboxDispatcher(NotificationOutboxRepository outboxRepository,
+                                        RealtimePublisher realtimePublisher,
+                                        BroadcastProgressTracker broadcastProgressTracker,
+                                        MeterRegistry meterRegistry,
+                                        @Value("${app.outbox.batch-size:500}") int batchSize,
+                                        @Value("${app.outbox.push-parallelism:4}") int pushParallelism,
+                                        @Value("${app.outbox.poll-interval-ms:1000}") long pollIntervalMs,
+                                        @Value("${app.outbox.delivered-retention:1d}") Duration deliveredRetention,
+                                        @Value("${app.outbox.max-attempts:10}") int maxAttempts,
+                                        @Value("${app.outbox.claim-lease:30s}") Duration claimLease,
+                                        @Value("${app.outbox.initial-backoff:2s}") Duration initialBackoff,
+                                        @Value("${app.outbox.max-backoff:5m}") Duration maxBackoff) {
+        this.outboxRepository = outboxRepository;
+        this.realtimePublisher = realtimePublisher;
+        this.broadcastProgressTracker = broadcastProgressTracker;
+        this.batchSize = batchSize;
+        this.pushParallelism = pushParallelism;
+        this.pushExecutor = Executors.newFixedThreadPool(pushParallelism,
+                Thread.ofPlatform().name("outbox-push-", 0).daemon(true).factory());
+        this.pollIntervalMs = pollIntervalMs;
+        this.deliveredRetention = deliveredRetention;
+        this.maxAttempts = maxAttempts;
+        this.claimLease = claimLease;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+        this.delivered = Counter.builder("notification.outbox.delivered")
+                .description("Outbox rows pushed and marked delivered")
+                .register(meterRegistry);
+        this.failedRounds = Counter.builder("notification.outbox.failed.rounds")
+                .description("Outbox rounds that failed, their rows are retried once the lease expires")
+                .register(meterRegistry);
+        this.failedPushes = Counter.builder("notification.outbox.failed.pushes")
+                .description("Outbox rows whose push failed and were scheduled for another attempt")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        running = true;
+        worker = Thread.ofPlatform().name("outbox-dispatcher").daemon(true).start(this::loop);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (worker != null) {
+            signal.release();
+            worker.join(TimeUnit.SECONDS.toMillis(10));
+        }
+        pushExecutor.shutdown();
+    }
+
+    public void wakeUp() {
+        // one pending permit is enough, the round drains everything committed so far
+        if (signal.availablePermits() == 0) {
+            signal.release();
+        }
+    }
+
+    private void loop() {
+        while (running) {
+            try {
+                signal.tryAcquire(pollIntervalMs, TimeUnit.MILLISECONDS);
+                signal.drainPermits();
+                drain();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                failedRounds.increment();
+                log.error("Outbox dispatch round failed", e);
+            }
+        }
+    }
+
+    private void drain() throws InterruptedException {
+        int dispatched;
+        do {
+            dispatched = dispatchBatch();
+        } while (running && dispatched == batchSize);
+    }
+
+    int dispatchBatch() throws InterruptedException {
+        LocalDateTime now = LocalDateTime.now();
+        List<NotificationOutboxRepository.Entry> batch =
+                outboxRepository.claimPending(now, now.plus(claimLease), maxAttempts, batchSize);
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        List<CompletableFuture<Void>> pushes = publishAll(batch);
+        awaitPushes(pushes);
+
+        List<Long> published = new ArrayList<>(batch.size());
+        List<Long> failed = new ArrayList<>();
+        Map<String, Long> pushedByBroadcast = new HashMap<>();
+        for (int i = 0; i < batch.size(); i++) {
+            NotificationOutboxRepository.Entry entry = batch.get(i);
+            CompletableFuture<Void> push = pushes.get(i);
+            if (push.isDone() && !push.isCompletedExceptionally()) {
+                published.add(entry.id());
+                if (entry.broadcastId() != null) {
+                    pushedByBroadcast.merge(entry.broadcastId(), 1L, Long::sum);
+                }
+            } else {
+                log.warn("Failed to push outbox notification {} to user {}, will retry: {}", entry.notificationId(),
+                        entry.userId(), push.isDone() ? push.exceptionNow().getMessage() : "not sent in time");
+                failed.add(entry.id());
+            }
+        }
+
+        LocalDateTime finishedAt = LocalDateTime.now();
+        if (!published.isEmpty()) {
+            outboxRepository.markDelivered(published, finishedAt);
+            delivered.increment(published.size());
+            reportBroadcastPushes(pushedByBroadcast);
+        }
+        if (!failed.isEmpty()) {
+            outboxRepository.markFailed(failed, finishedAt, initialBackoff.toSeconds(), maxBackoff.toSeconds());
+            failedPushes.increment(failed.size());
+        }
+        return batch.size();
+    }
+
+    /**
+     * Rows are split into lanes by user and the lanes publish in parallel, so the presence and
+     * relay round trips of a large batch overlap while each user's rows keep their order.
+     */
+    private List<CompletableFuture<Void>> publishAll(List<NotificationOutboxRepository.Entry> batch) {
+        List<List<Integer>> lanes = new ArrayList<>(pushParallelism);
+        for (int i = 0; i < pushParallelism; i++) {
+            lanes.add(new ArrayList<>());
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            lanes.get(Math.floorMod(batch.get(i).userId().hashCode(), pushParallelism)).add(i);
+        }
+
+        List<CompletableFuture<Void>> pushes = new ArrayList<>(Collections.nCopies(batch.size(), null));
+        for (List<Integer> lane : lanes) {
+            if (lane.isEmpty()) {
+                continue;
+            }
+            CompletableFuture<List<CompletableFuture<Void>>> published = CompletableFuture.supplyAsync(
+                    () -> lane.stream().map(i -> publish(batch.get(i))).toList(), pushExecutor);
+            for (int k = 0; k < lane.size(); k++) {
+                int position = k;
+                pushes.set(lane.get(k), published.thenCompose(sent -> sent.get(position)));
+            }
+        }
+        return pushes;
+    }
+
+    private CompletableFuture<Void> publish(NotificationOutboxRepository.Entry entry) {
+        try {
+            return realtimePublisher.publish(entry.userId(), entry.type(), entry.payload().getBytes(StandardCharsets.UTF_8));
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private void reportBroadcastPushes(Map<String, Long> pushedByBroadcast) {
+        if (pushedByBroadcast.isEmpty()) {
+            return;
+        }
+        // the rows are already marked delivered, a lost progress update must not fail the round
+        try {
+            broadcastProgressTracker.pushed(pushedByBroadcast);
+        } catch (Exception e) {
+            log.warn("Failed to report broadcast push progress: {}", e.getMessage());
+        }
+    }
+
+    private void awaitPushes(List<CompletableFuture<Void>> pushes) throws InterruptedException {
+        // settle well inside the lease so no other replica claims the rows while they are marked
+        try {
+            CompletableFuture.allOf(pushes.toArray(CompletableFuture[]::new))
+                    .get(claimLease.toMillis() / 2, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException | TimeoutException e) {
+            // per-row outcome is read from each future
+        }
+    }
+
+    @Scheduled(initialDelayString = "${app.outbox.cleanup-interval-ms:3600000}",
+            fixedDelayString = "${app.outbox.cleanup-interval-ms:3600000}")
+    public void purgeDelivered() {
+        try {
+            LocalDateTime before = LocalDateTime.now().minus(deliveredRetention);
+            int deleted;
+            int total = 0;
+            do {
+                deleted = outboxRepository.deleteFinishedBefore(before, maxAttempts, batchSize * 10);
+                total += deleted;
+            } while (deleted > 0);
+            if (total > 0) {
+                log.info("Purged {} finished outbox rows", total);
+            }
+        } catch (Exception e) {
+            log.error("Outbox purge failed", e);
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package capstone.notificationservice.service;
+
+import capstone.notificationservice.config.RetentionProperties;
+import capstone.notificationservice.enums.NotificationType;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * Maintains the monthly partitions of the notifications table: creates upcoming months,
+ * deletes rows of types with a shorter retention, and detaches partitions that fell out of
+ * every retention window, then archives or drops them.
+ */
+@Slf4j
+@Component
+public class NotificationRetentionJob {
+
+    private static final String PARTITION_PREFIX = "notifications_p";
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final RetentionProperties properties;
+    private final String schema;
+
+    public NotificationRetentionJob(JdbcTemplate jdbcTemplate,
+                                    RetentionProperties properties,
+                                    @Value("${spring.jpa.properties.hibernate.default_schema:notification_service}") String schema) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties;
+        this.schema = schema;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        try {
+            ensurePartitions();
+        } catch (Exception e) {
+            log.error("Creating notification partitions on startup failed", e);
+        }
+    }
+
+    @Scheduled(initialDelayString = "${app.retention.interval-ms:3600000}",
+            fixedDelayString = "${app.retention.interval-ms:3600000}")
+    public void run() {
+        try {
+            // inserts fail without a partition for the current month, so this runs even with retention off
+            ensurePartitions();
+            if (properties.isEnabled()) {
+                purgeExpiredRows();
+                dropExpiredPartitions();
+            }
+        } catch (Exception e) {
+            log.error("Notification retention run failed", e);
+        }
+    }
+
+    void ensurePartitions() {
+        YearMonth current = YearMonth.now();
+        for (int i = 0; i <= properties.getMonthsAhead(); i++) {
+            YearMonth month = current.plusMonths(i);
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + schema + "." + partitionName(month)
+                    + " PARTITION OF " + schema + ".notifications"
+                    + " FOR VALUES FROM ('" + month.atDay(1) + "') TO ('" + month.plusMonths(1).atDay(1) + "')");
+        }
+    }
+
+    /**
+     * Types kept shorter than the longest retention are deleted row by row in bounded batches;
+     * everything else leaves with its partition.
+     */
+    void purgeExpiredRows() {
+        long maxRetention = properties.maxRetention().toMillis();
+
+        for (NotificationType type : NotificationType.values()) {
+            if (properties.retentionFor(type).toMillis() >= maxRetention) {
+                continue;
+            }
+
+            LocalDateTime cutoff = LocalDateTime.now().minus(properties.retentionFor(type));
+            int total = 0;
+            int deleted;
+            do {
+                deleted = jdbcTemplate.update("DELETE FROM " + schema + ".notifications WHERE (id, created_at) IN ("
+                                + "SELECT id, created_at FROM " + schema + ".notifications"
+                                + " WHERE type = ? AND created_at < ? LIMIT ?)",
+                        type.name(), cutoff, properties.getDeleteBatchSize());
+                total += deleted;
+            } while (deleted >= properties.getDeleteBatchSize());
+
+            if (total > 0) {
+                log.info("Deleted {} {} notification(s) older than {}", total, type, cutoff);
+            }
+        }
+    }
+
+    void dropExpiredPartitions() {
+        LocalDate horizon = LocalDate.now().minusDays(properties.maxRetention().toDays());
+
+        List<String> partitions = jdbcTemplate.queryForList("""
+                SELECT c.relname FROM pg_inherits i
+                JOIN pg_class c ON c.oid = i.inhrelid
+                JOIN pg_class p ON p.oid = i.inhparent
+                JOIN pg_namespace n ON n.oid = p.relnamespace
+                WHERE p.relname = 'notifications' AND n.nspname = ?
+                """, String.class, schema);
+
+        for (String partition : partitions) {
+            if (!partition.startsWith(PARTITION_PREFIX)) {
+                continue;
+            }
+
+            YearMonth month = YearMonth.parse(partition.substring(PARTITION_PREFIX.length()), PARTITION_SUFFIX);
+            // only when the whole month is past the horizon
+            if (month.plusMonths(1).atDay(1).isAfter(horizon)) {
+                continue;
+            }
+
+            jdbcTemplate.execute("ALTER TABLE " + schema + ".notifications DETACH PARTITION " + schema + "." + partition);
+
+            if (properties.isArchive()) {
+                jdbcTemplate.execute("CREATE SCHEMA IF NOT EXISTS " + properties.getArchiveSchema());
+                jdbcTemplate.execute("ALTER TABLE " + schema + "." + partition + " SET SCHEMA " + properties.getArchiveSchema());
+                log.info("Archived notification partition {} to schema {}", partition, properties.getArchiveSchema());
+            } else {
+                jdbcTemplate.execute("DROP TABLE " + schema + "." + partition);
+                log.info("Dropped notification partition {}", partition);
+            }
+        }
+    }
+
+    private String partitionName(YearMonth month) {
+        return PARTITION_PREFIX + month.format(PARTITION_SUFFIX);
+    }
+}
@@ -1,22 +1,36 @@
 package capstone.notificationservice.service;
 
+import capstone.notificationservice.config.RetentionProperties;
+import capstone.notificationservice.dto.NotificationCursor;
+import capstone.notificationservice.dto.NotificationCursorResponse;
 import capstone.notificationservice.dto.NotificationDTO;
 import capstone.notificationservice.dto.NotificationPageResponse;
+import capstone.notificationservice.dto.NotificationReadSyncDTO;
 import capstone.notificationservice.entity.Notification;
 import capstone.notificationservice.enums.NotificationType;
 import capstone.notificationservice.exception.AppException;
 import capstone.notificationservice.exception.ErrorCode;
+import capstone.notificationservice.metrics.PipelineMetrics;
+import capstone.notificationservice.repository.NotificationOutboxRepository;
 import capstone.notificationservice.repository.NotificationRepository;
 import capstone.notificationservice.security.JwtUtil;
+import capstone.notificationservice.websocket.UserNotificationRelay;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
@@ -24,20 +38,19 @@ import java.util.List;
 public class NotificationService {
 
     private final NotificationRepository notificationRepository;
-    private final SimpMessagingTemplate messagingTemplate;
+    private final NotificationOutboxRepository outboxRepository;
+    private final NotificationOutboxDispatcher outboxDispatcher;
+    private final UserNotificationRelay userNotificationRelay;
     private final JwtUtil jwtUtil;
-    public void sendRealtimeNotification(Long userId, NotificationDTO notification) {
-        try {
-            messagingTemplate.convertAndSendToUser(
-                    userId.toString(),
-                    "/queue/notifications",
-                    notification);
-            log.info("Realtime notification sent to user: {}", userId);
-        } catch (Exception e) {
-            log.error("Failed to send realtime notification to user: {}", userId, e);
-        }
-    }
-
+    private final UnreadCountCache unreadCountCache;
+    private final RetentionProperties retentionProperties;
+    private final PipelineMetrics pipelineMetrics;
+
+    /**
+     * Saves the notification together with its outbox row; the push happens on the outbox
+     * dispatcher once the transaction commits, never on the consumer thread.
+     */
+    @Transactional
     public void createAndSendNotification(Long userId, String title, String message,
                                           NotificationType type, String imageUrl) {
 
@@ -51,22 +64,60 @@ public class NotificationService {
                 .imageUrl(imageUrl)
                 .build();
 
-        notificationRepository.save(notification);
-
-        NotificationDTO dto = NotificationDTO.fromEntity(notification);
+        pipelineMetrics.time(PipelineMetrics.DB, type, () -> notificationRepository.save(notification));
+        enqueueRealtime(List.of(notification), null);
+    }
 
-        sendRealtimeNotification(userId, dto);
+    @Transactional
+    public void createAndSendNotifications(List<Notification> notifications) {
+        createAndSendNotifications(notifications, null);
     }
 
-    public NotificationPageResponse getNotifications(Pageable pageable) {
-        Page<Notification> page = notificationRepository.findByUserIdOrderByCreatedAtDesc(jwtUtil.getDataFromAuth().userId(), pageable);
+    /**
+     * Outbox rows of a broadcast carry its ID, so the dispatcher can report their pushes back.
+     */
+    @Transactional
+    public void createAndSendNotifications(List<Notification> notifications, String broadcastId) {
+        if (notifications.isEmpty()) {
+            return;
+        }
+
+        pipelineMetrics.time(PipelineMetrics.DB, notifications.get(0).getType(),
+                () -> notificationRepository.insertAll(notifications));
+        enqueueRealtime(notifications, broadcastId);
+        log.info("Inserted {} notifications in one batch", notifications.size());
+    }
 
-        List<NotificationDTO> content = page.getContent().stream()
-                .map(NotificationDTO::fromEntity)
+    private void enqueueRealtime(List<Notification> notifications, String broadcastId) {
+        List<NotificationOutboxRepository.Entry> entries = notifications.stream()
+                .map(notification -> NotificationOutboxRepository.Entry.of(
+                        notification.getId(),
+                        notification.getUserId(),
+                        notification.getType(),
+                        new String(userNotificationRelay.toJson(NotificationDTO.fromEntity(notification)), StandardCharsets.UTF_8),
+                        broadcastId))
                 .toList();
+        outboxRepository.insertAll(entries);
+
+        // counters are not transactional, only move them once the rows are committed
+        Map<Long, Long> unreadByUser = notifications.stream()
+                .collect(Collectors.groupingBy(Notification::getUserId, Collectors.counting()));
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                unreadByUser.forEach(unreadCountCache::increment);
+                outboxDispatcher.wakeUp();
+            }
+        });
+    }
+
+    @Transactional(readOnly = true)
+    public NotificationPageResponse getNotifications(Pageable pageable) {
+        Page<NotificationDTO> page = notificationRepository.findRecentByUserId(
+                jwtUtil.getDataFromAuth().userId(), retentionProperties.visibleSince(), pageable);
 
         return NotificationPageResponse.builder()
-                .content(content)
+                .content(page.getContent())
                 .totalElements(page.getTotalElements())
                 .totalPages(page.getTotalPages())
                 .currentPage(page.getNumber())
@@ -76,8 +127,41 @@ public class NotificationService {
                 .build();
     }
 
+    @Transactional(readOnly = true)
+    public NotificationCursorResponse getNotificationsByCursor(String cursor, int size) {
+        Long userId = jwtUtil.getDataFromAuth().userId();
+        // one extra row tells whether another slice exists without a COUNT query
+        PageRequest limit = PageRequest.of(0, size + 1);
+        LocalDateTime since = retentionProperties.visibleSince();
+
+        List<NotificationDTO> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = notificationRepository.findFirstSlice(userId, since, limit);
+        } else {
+            NotificationCursor position = NotificationCursor.decode(cursor);
+            rows = notificationRepository.findSliceAfter(userId, since, position.createdAt(), position.id(), limit);
+        }
+
+        boolean hasNext = rows.size() > size;
+        List<NotificationDTO> slice = hasNext ? rows.subList(0, size) : rows;
+
+        String nextCursor = null;
+        if (hasNext) {
+            NotificationDTO last = slice.get(slice.size() - 1);
+            nextCursor = new NotificationCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+
+        return NotificationCursorResponse.builder()
+                .content(slice)
+                .nextCursor(nextCursor)
+                .hasNext(hasNext)
+                .pageSize(size)
+                .build();
+    }
+
     public NotificationDTO markAsRead(String notificationId) {
-        Notification notification = notificationRepository.findById(notificationId)
+        Notification notification = parseId(notificationId)
+                .flatMap(id -> notificationRepository.findVisibleById(id, retentionProperties.visibleSince()))
                 .orElseThrow(() -> new AppException(ErrorCode.RESOURCE_NOT_FOUND, "Notification not found"));
 
         if (!notification.getUserId().equals(jwtUtil.getDataFromAuth().userId())) {
@@ -88,25 +172,65 @@ public class NotificationService {
             notification.setRead(true);
             notification.setReadAt(LocalDateTime.now());
             notification = notificationRepository.save(notification);
+            unreadCountCache.increment(notification.getUserId(), -1);
             log.info("Notification {} marked as read", notificationId);
         }
 
         return NotificationDTO.fromEntity(notification);
     }
 
-    public void markAllAsRead() {
-        List<Notification> unreadNotifications = notificationRepository.findByUserIdAndReadFalse(jwtUtil.getDataFromAuth().userId());
-
+    /**
+     * Marks every unread notification of the current user as read with one UPDATE, or only those
+     * at or before {@code upTo} when a position is given. Returns the number of rows changed.
+     */
+    public int markAllAsRead(NotificationCursor upTo) {
+        Long userId = jwtUtil.getDataFromAuth().userId();
         LocalDateTime now = LocalDateTime.now();
-        unreadNotifications.forEach(notification -> {
-            notification.setRead(true);
-            notification.setReadAt(now);
-        });
+        LocalDateTime since = retentionProperties.visibleSince();
+
+        int updated = upTo == null
+                ? notificationRepository.markAllAsRead(userId, since, now)
+                : notificationRepository.markAsReadUpTo(userId, since, upTo.createdAt(), upTo.id(), now);
+
+        if (upTo == null) {
+            unreadCountCache.reset(userId);
+        } else if (updated > 0) {
+            unreadCountCache.increment(userId, -updated);
+        }
+
+        if (updated > 0) {
+            sendReadSync(userId, NotificationReadSyncDTO.builder()
+                    .upTo(upTo != null ? upTo.createdAt() : now)
+                    .readAt(now)
+                    .updatedCount(updated)
+                    .build());
+        }
+
+        log.info("Marked {} notification(s) as read for user {}", updated, userId);
+        return updated;
+    }
+
+    private static Optional<Long> parseId(String notificationId) {
+        try {
+            return Optional.of(Long.valueOf(notificationId));
+        } catch (NumberFormatException e) {
+            return Optional.empty();
+        }
+    }
 
-        notificationRepository.saveAll(unreadNotifications);
+    private void sendReadSync(Long userId, NotificationReadSyncDTO event) {
+        try {
+            userNotificationRelay.sendToUser(
+                    userId,
+                    "/queue/notifications/read-sync",
+                    event);
+        } catch (Exception e) {
+            log.error("Failed to send read sync to user: {}", userId, e);
+        }
     }
 
     public long getUnreadCount() {
-        return notificationRepository.countByUserIdAndReadFalse(jwtUtil.getDataFromAuth().userId());
+        Long userId = jwtUtil.getDataFromAuth().userId();
+        return unreadCountCache.get(userId, () -> notificationRepository.countUnread(userId, retentionProperties.visibleSince()));
     }
 }
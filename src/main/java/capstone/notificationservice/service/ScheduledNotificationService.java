@@ -0,0 +1,243 @@
+package capstone.notificationservice.service;
+
+import capstone.notificationservice.entity.Notification;
+import capstone.notificationservice.event.ScheduledNotificationEvent;
+import capstone.notificationservice.exception.AppException;
+import capstone.notificationservice.exception.ErrorCode;
+import capstone.notificationservice.repository.ScheduledNotificationRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Holds notifications until their delivery time in the scheduled_notifications table and
+ * releases them into the regular pipeline.
+ * <p>
+ * Every replica polls; each release takes a batch of due rows with SKIP LOCKED, so replicas
+ * split a burst instead of contending for it. A batch is deleted, inserted as notifications and
+ * queued in the outbox in one transaction, which makes a release all-or-nothing. When a large
+ * number of reminders fall due at the same minute they drain in fixed-size batches, and the
+ * outbox dispatcher pushes them at its own pace.
+ * <p>
+ * When a batch fails, its rows are released one by one so a single bad row cannot hold up the
+ * rows behind it. A row that keeps failing is backed off and, after {@code max-attempts}, set
+ * aside with {@code failed_at}.
+ * <p>
+ * Releasing runs on its own thread. A burst can keep a run busy for many batches, which would
+ * otherwise hold one of the few shared scheduler threads the stream and outbox jobs rely on.
+ */
+@Slf4j
+@Service
+public class ScheduledNotificationService {
+
+    // column size of the notifications table the rows are released into
+    private static final int MAX_COLUMN_LENGTH = 255;
+
+    private final ScheduledNotificationRepository scheduledNotificationRepository;
+    private final NotificationService notificationService;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter released;
+    private final Counter failed;
+    private final AtomicLong due = new AtomicLong();
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+    private final int maxAttempts;
+    private final Duration retryBackoff;
+    private final long pollIntervalMs;
+    private ScheduledExecutorService releaser;
+
+    public ScheduledNotificationService(ScheduledNotificationRepository scheduledNotificationRepository,
+                                        NotificationService notificationService,
+                                        PlatformTransactionManager transactionManager,
+                                        MeterRegistry meterRegistry,
+                                        @Value("${app.schedule.batch-size:1000}") int batchSize,
+                                        @Value("${app.schedule.max-batches-per-run:50}") int maxBatchesPerRun,
+                                        @Value("${app.schedule.max-attempts:5}") int maxAttempts,
+                                        @Value("${app.schedule.retry-backoff:30s}") Duration retryBackoff,
+                                        @Value("${app.schedule.poll-interval-ms:1000}") long pollIntervalMs) {
+        this.scheduledNotificationRepository = scheduledNotificationRepository;
+        this.notificationService = notificationService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.maxAttempts = maxAttempts;
+        this.retryBackoff = retryBackoff;
+        this.pollIntervalMs = pollIntervalMs;
+        this.released = Counter.builder("notification.scheduled.released")
+                .description("Scheduled notifications released into the pipeline")
+                .register(meterRegistry);
+        this.failed = Counter.builder("notification.scheduled.failed")
+                .description("Scheduled notifications set aside after exhausting their release attempts")
+                .register(meterRegistry);
+        Gauge.builder("notification.scheduled.due", due, AtomicLong::get)
+                .description("Scheduled notifications past their delivery time and not released yet")
+                .register(meterRegistry);
+    }
+
+    @Transactional
+    public int schedule(ScheduledNotificationEvent event) {
+        validate(event);
+
+        List<Notification> notifications = event.getUserIds().stream()
+                .distinct()
+                .map(userId -> Notification.builder()
+                        .userId(userId)
+                        .title(event.getTitle())
+                        .message(event.getMessage())
+                        .type(event.getType())
+                        .imageUrl(event.getImageUrl())
+                        .build())
+                .toList();
+
+        if (event.getScheduleKey() != null) {
+            // rescheduling replaces the whole audience, users dropped from the list must not stay scheduled
+            int replaced = scheduledNotificationRepository.deleteByScheduleKey(event.getScheduleKey());
+            if (replaced > 0) {
+                log.info("Replacing {} pending notification(s) with key {}", replaced, event.getScheduleKey());
+            }
+        }
+        scheduledNotificationRepository.insertAll(event.getScheduleKey(), notifications, event.getDeliverAt());
+        log.info("Scheduled {} notification(s) for {} (key: {})",
+                notifications.size(), event.getDeliverAt(), event.getScheduleKey());
+        return notifications.size();
+    }
+
+    public int cancel(String scheduleKey) {
+        int cancelled = scheduledNotificationRepository.deleteByScheduleKey(scheduleKey);
+        log.info("Cancelled {} scheduled notification(s) with key {}", cancelled, scheduleKey);
+        return cancelled;
+    }
+
+    private void validate(ScheduledNotificationEvent event) {
+        if (event.getUserIds() == null || event.getUserIds().isEmpty()) {
+            throw new AppException(ErrorCode.VALIDATION_FAILED, "userIds must not be empty");
+        }
+        if (event.getTitle() == null || event.getMessage() == null) {
+            throw new AppException(ErrorCode.VALIDATION_FAILED, "title and message are required");
+        }
+        if (event.getDeliverAt() == null) {
+            throw new AppException(ErrorCode.VALIDATION_FAILED, "deliverAt is required");
+        }
+        if (tooLong(event.getTitle()) || tooLong(event.getMessage()) || tooLong(event.getImageUrl())) {
+            throw new AppException(ErrorCode.VALIDATION_FAILED,
+                    "title, message and imageUrl must be at most " + MAX_COLUMN_LENGTH + " characters");
+        }
+    }
+
+    private static boolean tooLong(String value) {
+        return value != null && value.length() > MAX_COLUMN_LENGTH;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        releaser = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("scheduled-release").daemon(true).factory());
+        releaser.scheduleWithFixedDelay(this::releaseDue, pollIntervalMs, pollIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (releaser != null) {
+            releaser.shutdown();
+            releaser.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
+    public void releaseDue() {
+        try {
+            int batches = 0;
+            int count;
+            do {
+                count = releaseBatchOrIsolate();
+                batches++;
+            } while (count == batchSize && batches < maxBatchesPerRun);
+
+            due.set(scheduledNotificationRepository.countDue(LocalDateTime.now()));
+        } catch (Exception e) {
+            log.error("Releasing scheduled notifications failed", e);
+        }
+    }
+
+    private int releaseBatchOrIsolate() {
+        try {
+            Integer taken = transactionTemplate.execute(status -> releaseBatch());
+            return taken != null ? taken : 0;
+        } catch (Exception e) {
+            log.warn("Releasing a batch of scheduled notifications failed, releasing its rows one by one: {}", e.getMessage());
+            return releaseOneByOne();
+        }
+    }
+
+    private int releaseOneByOne() {
+        List<Long> ids = scheduledNotificationRepository.findDueIds(LocalDateTime.now(), batchSize);
+        for (Long id : ids) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> releaseRow(id));
+            } catch (Exception e) {
+                recordFailure(id, e);
+            }
+        }
+        return ids.size();
+    }
+
+    private void releaseRow(Long id) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Notification> row = scheduledNotificationRepository.takeById(id, now);
+        if (row.isEmpty()) {
+            return;
+        }
+        row.forEach(notification -> {
+            notification.setRead(false);
+            notification.setCreatedAt(now);
+        });
+        notificationService.createAndSendNotifications(row);
+        released.increment();
+    }
+
+    private void recordFailure(Long id, Exception cause) {
+        try {
+            String error = String.valueOf(cause.getMessage());
+            if (scheduledNotificationRepository.recordFailure(id, LocalDateTime.now(), error, maxAttempts, retryBackoff.toSeconds())) {
+                failed.increment();
+                log.error("Scheduled notification {} failed {} times and was set aside", id, maxAttempts, cause);
+            } else {
+                log.warn("Releasing scheduled notification {} failed, will retry: {}", id, error);
+            }
+        } catch (Exception e) {
+            log.error("Could not record the failed release of scheduled notification {}", id, e);
+        }
+    }
+
+    private int releaseBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Notification> batch = scheduledNotificationRepository.takeDue(now, batchSize);
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        batch.forEach(notification -> {
+            notification.setRead(false);
+            notification.setCreatedAt(now);
+        });
+        notificationService.createAndSendNotifications(batch);
+        released.increment(batch.size());
+        return batch.size();
+    }
+}
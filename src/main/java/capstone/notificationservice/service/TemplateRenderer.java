@@ -0,0 +1,154 @@
+package capstone.notificationservice.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.thymeleaf.ITemplateEngine;
+import org.thymeleaf.context.Context;
+
+import java.io.Writer;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Renders the mail templates through Thymeleaf's parsed-template cache, which keeps the
+ * static markup (including the inlined CSS blocks) as pre-parsed events so only the
+ * {@code th:*} expressions are evaluated per mail. Templates are warmed at startup and
+ * rendered into pooled, pre-sized buffers to avoid growing a fresh StringWriter every time.
+ */
+@Slf4j
+@Component
+public class TemplateRenderer {
+
+    public static final String OTP_EMAIL = "otp-email";
+    public static final String WELCOME_EMAIL = "welcome-email";
+    public static final String ORDER_CONFIRM_EMAIL = "order-confirm-email";
+    public static final List<String> TEMPLATES = List.of(OTP_EMAIL, WELCOME_EMAIL, ORDER_CONFIRM_EMAIL);
+
+    private static final int DEFAULT_BUFFER_SIZE = 16 * 1024;
+    private static final int MAX_POOLED_BUFFER_SIZE = 128 * 1024;
+    private static final int MAX_POOLED_BUFFERS = 64;
+
+    private final ITemplateEngine templateEngine;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Timer> renderTimers = new ConcurrentHashMap<>();
+    private final Map<String, Integer> sizeHints = new ConcurrentHashMap<>();
+    private final Queue<StringBuilderWriter> buffers = new ConcurrentLinkedQueue<>();
+
+    public TemplateRenderer(ITemplateEngine templateEngine, MeterRegistry meterRegistry) {
+        this.templateEngine = templateEngine;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        TEMPLATES.forEach(template -> {
+            try {
+                render(template, new Context());
+                log.info("Warmed mail template '{}' ({} chars)", template, sizeHints.get(template));
+            } catch (Exception e) {
+                log.warn("Failed to warm mail template '{}': {}", template, e.getMessage());
+            }
+        });
+    }
+
+    public String render(String template, Context context) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        StringBuilderWriter writer = acquire(sizeHints.getOrDefault(template, DEFAULT_BUFFER_SIZE));
+        try {
+            templateEngine.process(template, context, writer);
+            String html = writer.toString();
+            sizeHints.merge(template, html.length(), Math::max);
+            return html;
+        } finally {
+            release(writer);
+            sample.stop(renderTimers.computeIfAbsent(template, name -> Timer.builder("notification.template.render")
+                    .description("Time to render a mail template")
+                    .tag("template", name)
+                    .register(meterRegistry)));
+        }
+    }
+
+    private StringBuilderWriter acquire(int sizeHint) {
+        StringBuilderWriter writer = buffers.poll();
+        if (writer == null) {
+            return new StringBuilderWriter(sizeHint);
+        }
+        writer.ensureCapacity(sizeHint);
+        return writer;
+    }
+
+    private void release(StringBuilderWriter writer) {
+        if (writer.capacity() > MAX_POOLED_BUFFER_SIZE || buffers.size() >= MAX_POOLED_BUFFERS) {
+            return;
+        }
+        writer.reset();
+        buffers.offer(writer);
+    }
+
+    /**
+     * Unsynchronized writer over a reusable StringBuilder.
+     */
+    static final class StringBuilderWriter extends Writer {
+
+        private final StringBuilder buffer;
+
+        StringBuilderWriter(int initialCapacity) {
+            this.buffer = new StringBuilder(initialCapacity);
+        }
+
+        @Override
+        public void write(char[] chars, int offset, int length) {
+            buffer.append(chars, offset, length);
+        }
+
+        @Override
+        public void write(int c) {
+            buffer.append((char) c);
+        }
+
+        @Override
+        public void write(String str, int offset, int length) {
+            buffer.append(str, offset, offset + length);
+        }
+
+        @Override
+        public Writer append(CharSequence csq) {
+            buffer.append(csq);
+            return this;
+        }
+
+        @Override
+        public void flush() {
+            // nothing to flush, content stays in memory
+        }
+
+        @Override
+        public void close() {
+            // kept open so the buffer can be reused
+        }
+
+        void ensureCapacity(int capacity) {
+            buffer.ensureCapacity(capacity);
+        }
+
+        int capacity() {
+            return buffer.capacity();
+        }
+
+        void reset() {
+            buffer.setLength(0);
+        }
+
+        @Override
+        public String toString() {
+            return buffer.toString();
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package capstone.notificationservice.service;
+
+import capstone.notificationservice.config.RetentionProperties;
+import capstone.notificationservice.repository.NotificationRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Per-user unread counters kept in Redis so the unread-count endpoint does not hit
+ * Postgres. Counters are loaded lazily, adjusted on create/read, and periodically
+ * reconciled against the database to repair drift.
+ */
+@Slf4j
+@Component
+public class UnreadCountCache {
+
+    private static final String KEY_PREFIX = "notification:unread:";
+
+    // only adjust counters that are already loaded, otherwise the next read loads the real value
+    private static final RedisScript<Long> INCREMENT_IF_PRESENT = new DefaultRedisScript<>("""
+            if redis.call('EXISTS', KEYS[1]) == 0 then return nil end
+            local value = redis.call('INCRBY', KEYS[1], ARGV[1])
+            if value < 0 then
+              redis.call('SET', KEYS[1], 0, 'KEEPTTL')
+              value = 0
+            end
+            return value
+            """, Long.class);
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final NotificationRepository notificationRepository;
+    private final RetentionProperties retentionProperties;
+    private final Duration ttl;
+    private final int reconcileBatchSize;
+
+    public UnreadCountCache(RedisTemplate<String, Object> redisTemplate,
+                            NotificationRepository notificationRepository,
+                            RetentionProperties retentionProperties,
+                            @Value("${app.unread-count.ttl:24h}") Duration ttl,
+                            @Value("${app.unread-count.reconcile-batch-size:500}") int reconcileBatchSize) {
+        this.redisTemplate = redisTemplate;
+        this.notificationRepository = notificationRepository;
+        this.retentionProperties = retentionProperties;
+        this.ttl = ttl;
+        this.reconcileBatchSize = reconcileBatchSize;
+    }
+
+    public long get(Long userId, LongSupplier loader) {
+        String key = key(userId);
+        try {
+            Object cached = redisTemplate.opsForValue().get(key);
+            if (cached != null) {
+                return Long.parseLong(cached.toString());
+            }
+        } catch (Exception e) {
+            log.warn("Unread counter lookup failed for user {}, falling back to database: {}", userId, e.getMessage());
+            return loader.getAsLong();
+        }
+
+        long count = loader.getAsLong();
+        try {
+            redisTemplate.opsForValue().setIfAbsent(key, count, ttl);
+        } catch (Exception e) {
+            log.warn("Failed to cache unread counter for user {}: {}", userId, e.getMessage());
+        }
+        return count;
+    }
+
+    public void increment(Long userId, long delta) {
+        try {
+            redisTemplate.execute(INCREMENT_IF_PRESENT, List.of(key(userId)), delta);
+        } catch (Exception e) {
+            log.warn("Failed to adjust unread counter for user {}, evicting it: {}", userId, e.getMessage());
+            evict(userId);
+        }
+    }
+
+    public void reset(Long userId) {
+        try {
+            redisTemplate.opsForValue().set(key(userId), 0L, ttl);
+        } catch (Exception e) {
+            log.warn("Failed to reset unread counter for user {}: {}", userId, e.getMessage());
+        }
+    }
+
+    public void evict(Long userId) {
+        try {
+            redisTemplate.delete(key(userId));
+        } catch (Exception e) {
+            log.error("Failed to evict unread counter for user {}", userId, e);
+        }
+    }
+
+    @Scheduled(initialDelayString = "${app.unread-count.reconcile-interval-ms:600000}",
+            fixedDelayString = "${app.unread-count.reconcile-interval-ms:600000}")
+    public void reconcile() {
+        ScanOptions options = ScanOptions.scanOptions().match(KEY_PREFIX + "*").count(reconcileBatchSize).build();
+        List<Long> batch = new ArrayList<>(reconcileBatchSize);
+        int reconciled = 0;
+
+        try (Cursor<String> keys = redisTemplate.scan(options)) {
+            while (keys.hasNext()) {
+                batch.add(Long.parseLong(keys.next().substring(KEY_PREFIX.length())));
+                if (batch.size() >= reconcileBatchSize) {
+                    reconciled += reconcileBatch(batch);
+                    batch.clear();
+                }
+            }
+            reconciled += reconcileBatch(batch);
+        } catch (Exception e) {
+            log.error("Unread counter reconciliation failed", e);
+            return;
+        }
+
+        log.info("Reconciled {} unread counter(s) against the database", reconciled);
+    }
+
+    private int reconcileBatch(List<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return 0;
+        }
+
+        Map<Long, Long> counts = new HashMap<>();
+        notificationRepository.countUnreadByUserIds(userIds, retentionProperties.visibleSince())
+                .forEach(row -> counts.put((Long) row[0], (Long) row[1]));
+
+        userIds.forEach(userId -> redisTemplate.opsForValue()
+                .setIfPresent(key(userId), counts.getOrDefault(userId, 0L), ttl));
+        return userIds.size();
+    }
+
+    private String key(Long userId) {
+        return KEY_PREFIX + userId;
+    }
+}
@@ -0,0 +1,71 @@
+package capstone.notificationservice.websocket;
+
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Users with at least one STOMP session on this replica. The relay checks it before delivering,
+ * so relayed messages for users held by other replicas are dropped without touching the broker.
+ */
+@Component
+public class LocalSessionRegistry {
+
+    private final Map<Long, Set<String>> sessionsByUser = new ConcurrentHashMap<>();
+
+    /**
+     * @return true if this is the first local session of the user
+     */
+    public boolean add(Long userId, String sessionId) {
+        boolean[] first = {false};
+        sessionsByUser.compute(userId, (id, sessions) -> {
+            if (sessions == null) {
+                sessions = new HashSet<>();
+                first[0] = true;
+            }
+            sessions.add(sessionId);
+            return sessions;
+        });
+        return first[0];
+    }
+
+    /**
+     * @return true if the user has no local session left after this one
+     */
+    public boolean remove(Long userId, String sessionId) {
+        boolean[] last = {false};
+        sessionsByUser.computeIfPresent(userId, (id, sessions) -> {
+            if (!sessions.remove(sessionId) || !sessions.isEmpty()) {
+                return sessions;
+            }
+            last[0] = true;
+            return null;
+        });
+        return last[0];
+    }
+
+    public boolean holds(Long userId) {
+        return sessionsByUser.containsKey(userId);
+    }
+
+    /**
+     * Copy of the local sessions per user, safe to iterate while sessions come and go.
+     */
+    public Map<Long, Set<String>> snapshot() {
+        Map<Long, Set<String>> copy = new HashMap<>(sessionsByUser.size());
+        // sets are only mutated inside compute, copy them under the same per-key lock
+        sessionsByUser.keySet().forEach(userId -> sessionsByUser.computeIfPresent(userId, (id, sessions) -> {
+            copy.put(id, Set.copyOf(sessions));
+            return sessions;
+        }));
+        return copy;
+    }
+
+    public int userCount() {
+        return sessionsByUser.size();
+    }
+}
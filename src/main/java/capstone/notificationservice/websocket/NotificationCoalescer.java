@@ -0,0 +1,114 @@
+package capstone.notificationservice.websocket;
+
+import capstone.notificationservice.config.WebSocketProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collects pushes per user for a short window and sends them as one frame. A lone push keeps
+ * going to {@code /queue/notifications} as a single object; two or more go to
+ * {@code /queue/notifications/batch} as one JSON array. Batching is opt-in per subscription:
+ * the relay sends the items as single frames on {@code /queue/notifications} to sessions
+ * not subscribed to the batch destination. Payloads arrive already serialized.
+ * Every push gets a future that completes when its frame was handed to the relay.
+ */
+@Slf4j
+@Component
+public class NotificationCoalescer {
+
+    public static final String DESTINATION = "/queue/notifications";
+    public static final String BATCH_DESTINATION = "/queue/notifications/batch";
+
+    private final UserNotificationRelay userNotificationRelay;
+    private final WebSocketProperties.Coalesce properties;
+    private final Map<Long, Batch> pending = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("ws-coalescer").daemon(true).factory());
+
+    public NotificationCoalescer(UserNotificationRelay userNotificationRelay,
+                                 WebSocketProperties webSocketProperties,
+                                 MeterRegistry meterRegistry) {
+        this.userNotificationRelay = userNotificationRelay;
+        this.properties = webSocketProperties.getCoalesce();
+
+        Gauge.builder("notification.websocket.coalescer.pending", pending, Map::size)
+                .description("Users with pushes waiting for their coalescing window")
+                .register(meterRegistry);
+    }
+
+    public CompletableFuture<Void> enqueue(Long userId, byte[] json) {
+        CompletableFuture<Void> sent = new CompletableFuture<>();
+        if (properties.getWindowMs() <= 0) {
+            send(userId, List.of(json), List.of(sent));
+            return sent;
+        }
+
+        Batch[] full = new Batch[1];
+        pending.compute(userId, (id, batch) -> {
+            if (batch == null) {
+                Batch created = new Batch();
+                created.flushTask = scheduler.schedule(() -> flush(id, created), properties.getWindowMs(), TimeUnit.MILLISECONDS);
+                batch = created;
+            }
+            batch.items.add(json);
+            batch.sent.add(sent);
+            if (batch.items.size() >= properties.getMaxItems()) {
+                batch.flushTask.cancel(false);
+                full[0] = batch;
+                return null;
+            }
+            return batch;
+        });
+
+        if (full[0] != null) {
+            send(userId, full[0].items, full[0].sent);
+        }
+        return sent;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        pending.forEach(this::flush);
+    }
+
+    private void flush(Long userId, Batch batch) {
+        // a full batch may already have been sent and replaced by a newer one
+        if (pending.remove(userId, batch)) {
+            send(userId, batch.items, batch.sent);
+        }
+    }
+
+    private void send(Long userId, List<byte[]> items, List<CompletableFuture<Void>> sent) {
+        try {
+            if (items.size() == 1) {
+                userNotificationRelay.sendJsonToUser(userId, DESTINATION, items.get(0));
+            } else {
+                userNotificationRelay.sendBatchToUser(userId, items);
+            }
+            sent.forEach(future -> future.complete(null));
+        } catch (Exception e) {
+            log.error("Failed to send {} coalesced notification(s) to user: {}", items.size(), userId, e);
+            sent.forEach(future -> future.completeExceptionally(e));
+        }
+    }
+
+    private static class Batch {
+        private final List<byte[]> items = new ArrayList<>();
+        private final List<CompletableFuture<Void>> sent = new ArrayList<>();
+        private ScheduledFuture<?> flushTask;
+    }
+}
@@ -0,0 +1,101 @@
+package capstone.notificationservice.websocket;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Bounded per-user list of realtime pushes missed while the user was offline. Only the newest
+ * {@code max-items} are kept and the list expires after {@code ttl}; anything older is still
+ * available from the REST API.
+ */
+@Slf4j
+@Component
+public class OfflineReplayBuffer {
+
+    private static final String KEY_PREFIX = "notification:replay:";
+    private static final StringRedisSerializer STRING = StringRedisSerializer.UTF_8;
+
+    private static final RedisScript<Long> APPEND = new DefaultRedisScript<>("""
+            local size = redis.call('RPUSH', KEYS[1], ARGV[1])
+            redis.call('LTRIM', KEYS[1], -tonumber(ARGV[2]), -1)
+            redis.call('EXPIRE', KEYS[1], ARGV[3])
+            return size
+            """, Long.class);
+
+    // drops the replayed items only if nothing trimmed the head of the list in the meantime
+    private static final RedisScript<Long> ACKNOWLEDGE = new DefaultRedisScript<>("""
+            if redis.call('LINDEX', KEYS[1], 0) ~= ARGV[1] then return 0 end
+            redis.call('LTRIM', KEYS[1], tonumber(ARGV[2]), -1)
+            return 1
+            """, Long.class);
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final int maxItems;
+    private final Duration ttl;
+
+    public OfflineReplayBuffer(RedisTemplate<String, Object> redisTemplate,
+                               @Value("${app.websocket.replay.max-items:100}") int maxItems,
+                               @Value("${app.websocket.replay.ttl:24h}") Duration ttl) {
+        this.redisTemplate = redisTemplate;
+        this.maxItems = maxItems;
+        this.ttl = ttl;
+    }
+
+    /**
+     * Failures propagate so the outbox keeps the push for another attempt.
+     */
+    public void append(Long userId, byte[] json) {
+        redisTemplate.execute(APPEND, STRING, null, List.of(key(userId)),
+                new String(json, StandardCharsets.UTF_8), String.valueOf(maxItems), String.valueOf(ttl.toSeconds()));
+    }
+
+    /**
+     * Returns the buffered pushes without removing them, or null when nothing is buffered.
+     * Call {@link #acknowledge} once they were sent.
+     */
+    public Snapshot peek(Long userId) {
+        List<Object> items;
+        try {
+            items = redisTemplate.opsForList().range(key(userId), 0, -1);
+        } catch (Exception e) {
+            log.warn("Failed to read replay buffer for user {}: {}", userId, e.getMessage());
+            return null;
+        }
+
+        if (items == null || items.isEmpty()) {
+            return null;
+        }
+        List<String> values = items.stream().map(String::valueOf).toList();
+        byte[] json = ("[" + String.join(",", values) + "]").getBytes(StandardCharsets.UTF_8);
+        return new Snapshot(json, values.size(), values.get(0));
+    }
+
+    /**
+     * Removes the items of a snapshot. Pushes appended after the peek stay buffered; when the
+     * list was trimmed meanwhile nothing is removed and the items are replayed again later.
+     */
+    public void acknowledge(Long userId, Snapshot snapshot) {
+        try {
+            redisTemplate.execute(ACKNOWLEDGE, STRING, null, List.of(key(userId)),
+                    snapshot.head(), String.valueOf(snapshot.count()));
+        } catch (Exception e) {
+            log.warn("Failed to acknowledge replay of user {}, it is replayed again: {}", userId, e.getMessage());
+        }
+    }
+
+    public record Snapshot(byte[] json, int count, String head) {
+    }
+
+    private String key(Long userId) {
+        return KEY_PREFIX + userId;
+    }
+}
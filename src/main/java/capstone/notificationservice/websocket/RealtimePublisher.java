@@ -0,0 +1,41 @@
+package capstone.notificationservice.websocket;
+
+import capstone.notificationservice.enums.NotificationType;
+import capstone.notificationservice.metrics.PipelineMetrics;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Last hop of a realtime notification: coalesced live delivery when the user has a session
+ * anywhere in the cluster, the offline replay buffer otherwise. Redis failures propagate to the
+ * caller; the returned future completes once the frame carrying the push was sent, or once it
+ * was buffered for an offline user.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RealtimePublisher {
+
+    private final UserPresence userPresence;
+    private final OfflineReplayBuffer offlineReplayBuffer;
+    private final NotificationCoalescer notificationCoalescer;
+    private final PipelineMetrics pipelineMetrics;
+
+    public CompletableFuture<Void> publish(Long userId, NotificationType type, byte[] json) {
+        long start = System.nanoTime();
+        CompletableFuture<Void> sent;
+        if (!userPresence.isOnline(userId)) {
+            offlineReplayBuffer.append(userId, json);
+            sent = CompletableFuture.completedFuture(null);
+            log.debug("User {} is offline, notification buffered for replay", userId);
+        } else {
+            sent = notificationCoalescer.enqueue(userId, json);
+            log.debug("Realtime notification queued for user: {}", userId);
+        }
+        pipelineMetrics.recordStage(PipelineMetrics.PUSH, type, start);
+        return sent;
+    }
+}
@@ -0,0 +1,81 @@
+package capstone.notificationservice.websocket;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.simp.user.UserDestinationMessageHandler;
+import org.springframework.messaging.support.ExecutorChannelInterceptor;
+import org.springframework.stereotype.Component;
+
+import java.security.Principal;
+
+/**
+ * Replays pushes missed while offline when a client subscribes to {@link #REPLAY_DESTINATION}.
+ * Runs after the user destination handler processed the SUBSCRIBE on the inbound channel, so the
+ * broker subscription exists by the time the frame is sent; the SessionSubscribeEvent fires before
+ * that. Buffered items are only removed once the frame was handed to the broker.
+ */
+@Slf4j
+@Component
+public class ReplayOnSubscribeInterceptor implements ExecutorChannelInterceptor {
+
+    public static final String REPLAY_DESTINATION = "/queue/notifications/replay";
+
+    private final UserNotificationRelay userNotificationRelay;
+    private final OfflineReplayBuffer offlineReplayBuffer;
+
+    // the relay needs the broker template, which is built after the channel interceptors
+    public ReplayOnSubscribeInterceptor(@Lazy UserNotificationRelay userNotificationRelay,
+                                        OfflineReplayBuffer offlineReplayBuffer) {
+        this.userNotificationRelay = userNotificationRelay;
+        this.offlineReplayBuffer = offlineReplayBuffer;
+    }
+
+    @Override
+    public void afterMessageHandled(Message<?> message, MessageChannel channel, MessageHandler handler, Exception ex) {
+        if (ex != null || !(handler instanceof UserDestinationMessageHandler)) {
+            return;
+        }
+
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(message);
+        String destination = accessor.getDestination();
+        if (!StompCommand.SUBSCRIBE.equals(accessor.getCommand())
+                || destination == null || !destination.endsWith(REPLAY_DESTINATION)) {
+            return;
+        }
+
+        Long userId = userIdOf(accessor.getUser());
+        if (userId == null) {
+            return;
+        }
+
+        OfflineReplayBuffer.Snapshot missed = offlineReplayBuffer.peek(userId);
+        if (missed == null) {
+            return;
+        }
+
+        try {
+            userNotificationRelay.sendJsonToLocalSession(userId, accessor.getSessionId(), REPLAY_DESTINATION, missed.json());
+        } catch (Exception e) {
+            log.warn("Failed to replay missed notifications to user {}, kept for the next subscribe: {}", userId, e.getMessage());
+            return;
+        }
+        offlineReplayBuffer.acknowledge(userId, missed);
+        log.info("Replayed {} missed notification(s) to user {}", missed.count(), userId);
+    }
+
+    private Long userIdOf(Principal user) {
+        if (user == null) {
+            return null;
+        }
+        try {
+            return Long.valueOf(user.getName());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,321 @@
+package capstone.notificationservice.websocket;
+
+import capstone.notificationservice.config.WebSocketProperties;
+import capstone.notificationservice.consumer.ConsumerIdentity;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.user.SimpSession;
+import org.springframework.messaging.simp.user.SimpUser;
+import org.springframework.messaging.simp.user.SimpUserRegistry;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Delivers user-destination messages across replicas. Each message is published to a Redis
+ * channel picked by userId shard; a replica only subscribes to the shards of users it holds and
+ * drops messages for users without a local session. Local sessions are served directly and the
+ * replica ignores its own publications.
+ * <p>
+ * Coalesced bursts are only delivered as an array to sessions subscribed to
+ * {@link NotificationCoalescer#BATCH_DESTINATION}; every other session gets the items one by
+ * one on {@link NotificationCoalescer#DESTINATION}, as before coalescing existed. The item
+ * bytes travel next to the array (a relayed batch carries the item lengths in its envelope), so
+ * nothing is parsed or re-serialized to split a batch.
+ */
+@Slf4j
+@Component
+public class UserNotificationRelay implements MessageListener {
+
+    private static final byte SEPARATOR = '\n';
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final SimpUserRegistry simpUserRegistry;
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final LocalSessionRegistry sessionRegistry;
+    private final WebSocketProperties.Relay properties;
+    private final String nodeId;
+
+    private final Map<Integer, Integer> usersPerShard = new HashMap<>();
+
+    public UserNotificationRelay(SimpMessagingTemplate messagingTemplate,
+                                 SimpUserRegistry simpUserRegistry,
+                                 RedisTemplate<String, Object> redisTemplate,
+                                 RedisMessageListenerContainer listenerContainer,
+                                 LocalSessionRegistry sessionRegistry,
+                                 WebSocketProperties webSocketProperties,
+                                 ConsumerIdentity consumerIdentity) {
+        this.messagingTemplate = messagingTemplate;
+        this.simpUserRegistry = simpUserRegistry;
+        this.redisTemplate = redisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.sessionRegistry = sessionRegistry;
+        this.properties = webSocketProperties.getRelay();
+        this.nodeId = consumerIdentity.getConsumerName();
+    }
+
+    public void sendToUser(Long userId, String destination, Object payload) {
+        if (!properties.isEnabled()) {
+            messagingTemplate.convertAndSendToUser(userId.toString(), destination, payload);
+            return;
+        }
+
+        sendJsonToUser(userId, destination, toJson(payload));
+    }
+
+    /**
+     * Sends an already serialized JSON body, so callers fanning one payload out can convert it once.
+     */
+    public void sendJsonToUser(Long userId, String destination, byte[] body) {
+        if (!properties.isEnabled()) {
+            send(userId.toString(), null, destination, body);
+            return;
+        }
+
+        if (sessionRegistry.holds(userId)) {
+            send(userId.toString(), null, destination, body);
+        }
+
+        publish(userId, encode(userId, destination, body));
+    }
+
+    /**
+     * Sends a coalesced burst: the JSON array to sessions subscribed to the batch destination,
+     * the items themselves to every other session.
+     */
+    public void sendBatchToUser(Long userId, List<byte[]> items) {
+        byte[] array = toArray(items);
+        if (!properties.isEnabled()) {
+            deliverBatchLocally(userId.toString(), array, items);
+            return;
+        }
+
+        if (sessionRegistry.holds(userId)) {
+            deliverBatchLocally(userId.toString(), array, items);
+        }
+
+        // the batch destination line is followed by the item lengths, e.g. "12,40,33"
+        publish(userId, encode(userId, NotificationCoalescer.BATCH_DESTINATION + "\n" + itemLengths(items), array));
+    }
+
+    private void publish(Long userId, byte[] envelope) {
+        byte[] channel = channelFor(userId).getBytes(StandardCharsets.UTF_8);
+        redisTemplate.execute((RedisCallback<Long>) connection -> connection.publish(channel, envelope));
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        byte[] raw = message.getBody();
+        int first = indexOf(raw, 0);
+        int second = first < 0 ? -1 : indexOf(raw, first + 1);
+        int third = second < 0 ? -1 : indexOf(raw, second + 1);
+        if (third < 0) {
+            log.warn("Dropping malformed relay message on {}", new String(message.getChannel(), StandardCharsets.UTF_8));
+            return;
+        }
+
+        String origin = new String(raw, 0, first, StandardCharsets.UTF_8);
+        if (nodeId.equals(origin)) {
+            return;
+        }
+
+        String user = new String(raw, first + 1, second - first - 1, StandardCharsets.UTF_8);
+        if (!sessionRegistry.holds(Long.valueOf(user))) {
+            return;
+        }
+
+        String destination = new String(raw, second + 1, third - second - 1, StandardCharsets.UTF_8);
+        if (NotificationCoalescer.BATCH_DESTINATION.equals(destination)) {
+            int fourth = indexOf(raw, third + 1);
+            if (fourth < 0) {
+                log.warn("Dropping malformed relay batch on {}", new String(message.getChannel(), StandardCharsets.UTF_8));
+                return;
+            }
+            String lengths = new String(raw, third + 1, fourth - third - 1, StandardCharsets.UTF_8);
+            byte[] array = Arrays.copyOfRange(raw, fourth + 1, raw.length);
+            deliverBatchLocally(user, array, sliceItems(array, lengths));
+            return;
+        }
+
+        byte[] body = new byte[raw.length - third - 1];
+        System.arraycopy(raw, third + 1, body, 0, body.length);
+
+        send(user, null, destination, body);
+    }
+
+    public void sessionConnected(Long userId, String sessionId) {
+        if (sessionRegistry.add(userId, sessionId) && properties.isEnabled()) {
+            changeShardUsers(shardOf(userId), 1);
+        }
+    }
+
+    public void sessionDisconnected(Long userId, String sessionId) {
+        if (sessionRegistry.remove(userId, sessionId) && properties.isEnabled()) {
+            changeShardUsers(shardOf(userId), -1);
+        }
+    }
+
+    private synchronized void changeShardUsers(int shard, int delta) {
+        int users = usersPerShard.getOrDefault(shard, 0) + delta;
+        ChannelTopic topic = new ChannelTopic(properties.getChannelPrefix() + shard);
+
+        if (users <= 0) {
+            usersPerShard.remove(shard);
+            listenerContainer.removeMessageListener(this, topic);
+            log.debug("Unsubscribed from relay shard {}", shard);
+        } else {
+            usersPerShard.put(shard, users);
+            if (users == 1 && delta > 0) {
+                listenerContainer.addMessageListener(this, topic);
+                log.debug("Subscribed to relay shard {}", shard);
+            }
+        }
+    }
+
+    /**
+     * Delivers only to the sessions of the user on this replica.
+     */
+    public void sendJsonToLocalUser(Long userId, String destination, byte[] body) {
+        send(userId.toString(), null, destination, body);
+    }
+
+    /**
+     * Delivers only to one session of the user on this replica.
+     */
+    public void sendJsonToLocalSession(Long userId, String sessionId, String destination, byte[] body) {
+        send(userId.toString(), sessionId, destination, body);
+    }
+
+    private void deliverBatchLocally(String user, byte[] array, List<byte[]> items) {
+        SimpUser simpUser = simpUserRegistry.getUser(user);
+        if (simpUser == null) {
+            return;
+        }
+
+        for (SimpSession session : simpUser.getSessions()) {
+            boolean batched = session.getSubscriptions().stream()
+                    .anyMatch(subscription -> subscription.getDestination().endsWith(NotificationCoalescer.BATCH_DESTINATION));
+            if (batched) {
+                send(user, session.getId(), NotificationCoalescer.BATCH_DESTINATION, array);
+                continue;
+            }
+
+            for (byte[] item : items) {
+                send(user, session.getId(), NotificationCoalescer.DESTINATION, item);
+            }
+        }
+    }
+
+    private static byte[] toArray(List<byte[]> items) {
+        int size = items.size() + 1;
+        for (byte[] item : items) {
+            size += item.length;
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(size);
+        out.write('[');
+        for (int i = 0; i < items.size(); i++) {
+            if (i > 0) {
+                out.write(',');
+            }
+            out.writeBytes(items.get(i));
+        }
+        out.write(']');
+        return out.toByteArray();
+    }
+
+    private static String itemLengths(List<byte[]> items) {
+        StringBuilder lengths = new StringBuilder();
+        for (byte[] item : items) {
+            if (!lengths.isEmpty()) {
+                lengths.append(',');
+            }
+            lengths.append(item.length);
+        }
+        return lengths.toString();
+    }
+
+    /**
+     * Cuts the items out of an array built by {@link #toArray(List)}: one bracket in front,
+     * one comma between items.
+     */
+    private static List<byte[]> sliceItems(byte[] array, String lengths) {
+        String[] parts = lengths.split(",");
+        List<byte[]> items = new ArrayList<>(parts.length);
+        int offset = 1;
+        for (String part : parts) {
+            int length = Integer.parseInt(part);
+            items.add(Arrays.copyOfRange(array, offset, offset + length));
+            offset += length + 1;
+        }
+        return items;
+    }
+
+    /**
+     * With a session ID only that session of the user receives the message.
+     */
+    private void send(String user, String sessionId, String destination, byte[] body) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        if (sessionId != null) {
+            accessor.setSessionId(sessionId);
+        }
+        accessor.setLeaveMutable(true);
+
+        messagingTemplate.send(
+                messagingTemplate.getUserDestinationPrefix() + user + destination,
+                MessageBuilder.createMessage(body, accessor.getMessageHeaders()));
+    }
+
+    public byte[] toJson(Object payload) {
+        // use the broker's own converter so relayed and local payloads serialize identically
+        org.springframework.messaging.Message<?> converted =
+                messagingTemplate.getMessageConverter().toMessage(payload, null);
+        if (converted == null || !(converted.getPayload() instanceof byte[] bytes)) {
+            throw new IllegalStateException("Cannot serialize payload of type " + payload.getClass().getName());
+        }
+        return bytes;
+    }
+
+    private byte[] encode(Long userId, String destination, byte[] body) {
+        byte[] header = (nodeId + "\n" + userId + "\n" + destination + "\n").getBytes(StandardCharsets.UTF_8);
+        byte[] envelope = new byte[header.length + body.length];
+        System.arraycopy(header, 0, envelope, 0, header.length);
+        System.arraycopy(body, 0, envelope, header.length, body.length);
+        return envelope;
+    }
+
+    private static int indexOf(byte[] raw, int from) {
+        for (int i = from; i < raw.length; i++) {
+            if (raw[i] == SEPARATOR) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private int shardOf(Long userId) {
+        return Math.floorMod(userId.hashCode(), properties.getShards());
+    }
+
+    private String channelFor(Long userId) {
+        return properties.getChannelPrefix() + shardOf(userId);
+    }
+}
@@ -0,0 +1,97 @@
+package capstone.notificationservice.websocket;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Cluster-wide presence: the STOMP session IDs of a user across all replicas, kept in a Redis set.
+ * Every replica re-adds its local sessions and refreshes the short TTL on a heartbeat, so when a
+ * replica crashes its users drop offline within one TTL and their pushes go to the replay buffer.
+ */
+@Slf4j
+@Component
+public class UserPresence {
+
+    private static final String KEY_PREFIX = "notification:presence:";
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final LocalSessionRegistry sessionRegistry;
+    private final Duration ttl;
+
+    public UserPresence(RedisTemplate<String, Object> redisTemplate,
+                        LocalSessionRegistry sessionRegistry,
+                        @Value("${app.websocket.presence.ttl:90s}") Duration ttl) {
+        this.redisTemplate = redisTemplate;
+        this.sessionRegistry = sessionRegistry;
+        this.ttl = ttl;
+    }
+
+    public void connected(Long userId, String sessionId) {
+        try {
+            String key = key(userId);
+            redisTemplate.opsForSet().add(key, sessionId);
+            redisTemplate.expire(key, ttl);
+        } catch (Exception e) {
+            log.warn("Failed to record presence of user {}: {}", userId, e.getMessage());
+        }
+    }
+
+    public void disconnected(Long userId, String sessionId) {
+        try {
+            // SREM of the last member deletes the set
+            redisTemplate.opsForSet().remove(key(userId), sessionId);
+        } catch (Exception e) {
+            log.warn("Failed to clear presence of user {}: {}", userId, e.getMessage());
+        }
+    }
+
+    /**
+     * Pipelined, one SADD and EXPIRE per local user; the heartbeat interval should be a fraction
+     * of the TTL so one missed beat does not mark anyone offline.
+     */
+    @Scheduled(fixedDelayString = "${app.websocket.presence.heartbeat-ms:30000}")
+    public void heartbeat() {
+        Map<Long, Set<String>> local = sessionRegistry.snapshot();
+        if (local.isEmpty()) {
+            return;
+        }
+
+        try {
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                local.forEach((userId, sessions) -> {
+                    byte[] key = key(userId).getBytes(StandardCharsets.UTF_8);
+                    connection.setCommands().sAdd(key, sessions.stream()
+                            .map(sessionId -> sessionId.getBytes(StandardCharsets.UTF_8))
+                            .toArray(byte[][]::new));
+                    connection.keyCommands().expire(key, ttl.toSeconds());
+                });
+                return null;
+            });
+        } catch (Exception e) {
+            log.warn("Presence heartbeat for {} user(s) failed: {}", local.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * Throws when presence cannot be read, so the caller can retry the push instead of guessing.
+     */
+    public boolean isOnline(Long userId) {
+        if (sessionRegistry.holds(userId)) {
+            return true;
+        }
+        return Boolean.TRUE.equals(redisTemplate.hasKey(key(userId)));
+    }
+
+    private String key(Long userId) {
+        return KEY_PREFIX + userId;
+    }
+}
@@ -0,0 +1,90 @@
+package capstone.notificationservice.websocket;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+import org.springframework.web.socket.handler.WebSocketSessionDecorator;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Connection-level WebSocket metrics. The handler decorator hands a metered session down to the
+ * STOMP handler, so every frame written to a socket passes through {@link MeteredSession}
+ * after Spring's per-session send buffer.
+ */
+@Component
+public class WebSocketMetrics {
+
+    private final AtomicInteger activeSessions = new AtomicInteger();
+    private final AtomicLong inFlightBytes = new AtomicLong();
+    private final Timer sendLatency;
+    private final Counter slowSessionsClosed;
+
+    public WebSocketMetrics(MeterRegistry meterRegistry) {
+        Gauge.builder("notification.websocket.sessions", activeSessions, AtomicInteger::get)
+                .description("Open WebSocket sessions on this replica")
+                .register(meterRegistry);
+        Gauge.builder("notification.websocket.send.inflight.bytes", inFlightBytes, AtomicLong::get)
+                .description("Bytes handed to sockets whose write has not completed yet")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        this.sendLatency = Timer.builder("notification.websocket.send.latency")
+                .description("Time to write one frame to a socket")
+                .publishPercentileHistogram()
+                .serviceLevelObjectives(Duration.ofMillis(10), Duration.ofMillis(100), Duration.ofSeconds(1))
+                .register(meterRegistry);
+        this.slowSessionsClosed = Counter.builder("notification.websocket.sessions.slow.closed")
+                .description("Sessions closed for exceeding the send time or buffer limit")
+                .register(meterRegistry);
+    }
+
+    public WebSocketHandler decorate(WebSocketHandler handler) {
+        return new WebSocketHandlerDecorator(handler) {
+            @Override
+            public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+                activeSessions.incrementAndGet();
+                super.afterConnectionEstablished(new MeteredSession(session));
+            }
+
+            @Override
+            public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
+                activeSessions.decrementAndGet();
+                if (CloseStatus.SESSION_NOT_RELIABLE.equalsCode(closeStatus)) {
+                    slowSessionsClosed.increment();
+                }
+                super.afterConnectionClosed(session, closeStatus);
+            }
+        };
+    }
+
+    private class MeteredSession extends WebSocketSessionDecorator {
+
+        MeteredSession(WebSocketSession delegate) {
+            super(delegate);
+        }
+
+        @Override
+        public void sendMessage(WebSocketMessage<?> message) throws IOException {
+            int size = message.getPayloadLength();
+            inFlightBytes.addAndGet(size);
+            long start = System.nanoTime();
+            try {
+                super.sendMessage(message);
+            } finally {
+                sendLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                inFlightBytes.addAndGet(-size);
+            }
+        }
+    }
+}
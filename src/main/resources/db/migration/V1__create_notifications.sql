@@ -0,0 +1,15 @@
+-- Table as previously created by hibernate ddl-auto; a no-op on databases that already have it.
+CREATE TABLE IF NOT EXISTS notifications (
+    id         bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id    bigint       NOT NULL,
+    title      varchar(255),
+    message    varchar(255),
+    type       varchar(50),
+    is_read    boolean      NOT NULL,
+    created_at timestamp(6),
+    read_at    timestamp(6),
+    image_url  varchar(255)
+);
+
+CREATE INDEX IF NOT EXISTS idx_notifications_user_created_id
+    ON notifications (user_id, created_at DESC, id DESC);
@@ -0,0 +1,50 @@
+-- Range-partition notifications by created_at month. The primary key must include the
+-- partition key, ids keep coming from one sequence so they stay unique across partitions.
+ALTER TABLE notifications RENAME TO notifications_legacy;
+ALTER INDEX IF EXISTS idx_notifications_user_created_id RENAME TO idx_notifications_legacy_user_created_id;
+
+CREATE SEQUENCE notification_id_seq;
+
+CREATE TABLE notifications (
+    id         bigint       NOT NULL DEFAULT nextval('notification_id_seq'),
+    user_id    bigint       NOT NULL,
+    title      varchar(255),
+    message    varchar(255),
+    type       varchar(50),
+    is_read    boolean      NOT NULL DEFAULT false,
+    created_at timestamp(6) NOT NULL DEFAULT now(),
+    read_at    timestamp(6),
+    image_url  varchar(255),
+    PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+ALTER SEQUENCE notification_id_seq OWNED BY notifications.id;
+
+CREATE INDEX idx_notifications_user_created_id ON notifications (user_id, created_at DESC, id DESC);
+CREATE INDEX idx_notifications_user_unread ON notifications (user_id) WHERE is_read = false;
+-- per-type retention deletes
+CREATE INDEX idx_notifications_type_created ON notifications (type, created_at);
+
+-- one partition per month from the oldest existing row up to three months ahead,
+-- later months are created by the retention job
+DO $$
+DECLARE
+    month      date := date_trunc('month', coalesce((SELECT min(created_at) FROM notifications_legacy), now()));
+    last_month date := date_trunc('month', now()) + interval '3 months';
+BEGIN
+    WHILE month <= last_month LOOP
+        EXECUTE format('CREATE TABLE %I PARTITION OF notifications FOR VALUES FROM (%L) TO (%L)',
+                       'notifications_p' || to_char(month, 'YYYYMM'),
+                       month,
+                       (month + interval '1 month')::date);
+        month := (month + interval '1 month')::date;
+    END LOOP;
+END $$;
+
+INSERT INTO notifications (id, user_id, title, message, type, is_read, created_at, read_at, image_url)
+SELECT id, user_id, title, message, type, is_read, coalesce(created_at, now()), read_at, image_url
+FROM notifications_legacy;
+
+SELECT setval('notification_id_seq', coalesce((SELECT max(id) FROM notifications_legacy), 0) + 1, false);
+
+DROP TABLE notifications_legacy;
@@ -0,0 +1,14 @@
+-- Realtime pushes written in the same transaction as their notification and drained by
+-- NotificationOutboxDispatcher. Delivered rows are purged after a while.
+CREATE TABLE notification_outbox (
+    id              bigserial    PRIMARY KEY,
+    notification_id bigint       NOT NULL,
+    user_id         bigint       NOT NULL,
+    type            varchar(50),
+    payload         text         NOT NULL,
+    created_at      timestamp(6) NOT NULL DEFAULT now(),
+    delivered_at    timestamp(6)
+);
+
+CREATE INDEX idx_notification_outbox_pending ON notification_outbox (id) WHERE delivered_at IS NULL;
+CREATE INDEX idx_notification_outbox_delivered ON notification_outbox (delivered_at) WHERE delivered_at IS NOT NULL;
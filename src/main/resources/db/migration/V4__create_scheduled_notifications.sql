@@ -0,0 +1,16 @@
+-- Notifications waiting for their delivery time. Rows are deleted when released into the
+-- notifications table, so the table only holds what is still due.
+CREATE TABLE scheduled_notifications (
+    id           bigserial    PRIMARY KEY,
+    schedule_key varchar(200),
+    user_id      bigint       NOT NULL,
+    title        varchar(255) NOT NULL,
+    message      text         NOT NULL,
+    type         varchar(50),
+    image_url    text,
+    deliver_at   timestamp(6) NOT NULL,
+    created_at   timestamp(6) NOT NULL DEFAULT now(),
+    CONSTRAINT uk_scheduled_notifications_key_user UNIQUE (schedule_key, user_id)
+);
+
+CREATE INDEX idx_scheduled_notifications_due ON scheduled_notifications (deliver_at, id);
@@ -0,0 +1,4 @@
+-- Failed pushes stay undelivered and are retried with backoff until max attempts.
+ALTER TABLE notification_outbox
+    ADD COLUMN attempts        integer      NOT NULL DEFAULT 0,
+    ADD COLUMN next_attempt_at timestamp(6);
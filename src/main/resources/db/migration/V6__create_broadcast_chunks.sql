@@ -0,0 +1,10 @@
+-- Ledger of broadcast chunks already inserted. A chunk's row is written in the same transaction
+-- as its notifications, so a rerun of the broadcast can never insert a chunk twice.
+CREATE TABLE broadcast_chunks (
+    broadcast_id varchar(100) NOT NULL,
+    chunk_index  integer      NOT NULL,
+    delivered_at timestamp(6) NOT NULL DEFAULT now(),
+    PRIMARY KEY (broadcast_id, chunk_index)
+);
+
+CREATE INDEX idx_broadcast_chunks_delivered ON broadcast_chunks (delivered_at);
@@ -0,0 +1,12 @@
+-- Match the notifications columns, so anything accepted here can be released, and track rows
+-- whose release keeps failing. Rows with failed_at set are left aside for inspection.
+ALTER TABLE scheduled_notifications
+    ALTER COLUMN message TYPE varchar(255) USING left(message, 255),
+    ALTER COLUMN image_url TYPE varchar(255) USING left(image_url, 255),
+    ADD COLUMN attempts        integer      NOT NULL DEFAULT 0,
+    ADD COLUMN next_attempt_at timestamp(6),
+    ADD COLUMN last_error      text,
+    ADD COLUMN failed_at       timestamp(6);
+
+DROP INDEX idx_scheduled_notifications_due;
+CREATE INDEX idx_scheduled_notifications_due ON scheduled_notifications (deliver_at, id) WHERE failed_at IS NULL;
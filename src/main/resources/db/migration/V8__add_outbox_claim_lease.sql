@@ -0,0 +1,3 @@
+-- Rows are claimed with a short lease instead of being locked for the whole push, so the
+-- dispatcher publishes outside any transaction. An expired lease makes the row claimable again.
+ALTER TABLE notification_outbox ADD COLUMN locked_until timestamp(6);
@@ -0,0 +1,12 @@
+-- The audience a broadcast resolved on its first run. Reruns chunk this snapshot instead of the
+-- live audience set, so chunk indexes keep pointing at the same users.
+CREATE TABLE broadcast_audiences (
+    broadcast_id varchar(100) PRIMARY KEY,
+    user_ids     bigint[]     NOT NULL,
+    created_at   timestamp(6) NOT NULL DEFAULT now()
+);
+
+CREATE INDEX idx_broadcast_audiences_created ON broadcast_audiences (created_at);
+
+-- Lets the outbox dispatcher report pushes back to the broadcast that inserted the row.
+ALTER TABLE notification_outbox ADD COLUMN broadcast_id varchar(100);
@@ -0,0 +1,90 @@
+package capstone.notificationservice.consumer;
+
+import capstone.notificationservice.config.StreamConsumerProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StreamOperations;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class AckAccumulatorTest {
+
+    private static final String STREAM = "order-confirm";
+
+    @SuppressWarnings("unchecked")
+    private final RedisTemplate<String, Object> redisTemplate = mock(RedisTemplate.class);
+    @SuppressWarnings("unchecked")
+    private final StreamOperations<String, Object, Object> streams = mock(StreamOperations.class);
+    private final StreamConsumerProperties properties = new StreamConsumerProperties();
+    private AckAccumulator accumulator;
+
+    @BeforeEach
+    void setUp() {
+        properties.getAck().setBatchSize(3);
+        when(redisTemplate.opsForStream()).thenReturn(streams);
+        accumulator = new AckAccumulator(redisTemplate, properties);
+    }
+
+    @Test
+    void acknowledgesOnceBatchSizeIsReached() {
+        accumulator.add(STREAM, "1-0");
+        accumulator.add(STREAM, "2-0");
+        verifyNoInteractions(streams);
+
+        accumulator.add(STREAM, "3-0");
+
+        verify(streams).acknowledge(STREAM, properties.getGroup(), "1-0", "2-0", "3-0");
+    }
+
+    @Test
+    void failedAcknowledgeIsRetriedOnNextFlush() {
+        when(streams.acknowledge(STREAM, properties.getGroup(), "1-0"))
+                .thenThrow(new IllegalStateException("connection reset"))
+                .thenReturn(1L);
+        accumulator.add(STREAM, "1-0");
+
+        accumulator.flush(STREAM);
+        accumulator.flush(STREAM);
+
+        verify(streams, times(2)).acknowledge(STREAM, properties.getGroup(), "1-0");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void periodicFlushPipelinesEveryStreamAndDrainsThem() {
+        accumulator.add(STREAM, "1-0");
+        accumulator.add("welcome-signup", "2-0");
+
+        accumulator.flushAll();
+        accumulator.flushAll();
+
+        verify(redisTemplate, times(1)).executePipelined(any(RedisCallback.class));
+        verify(streams, never()).acknowledge(any(), any(), any(String[].class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void failedPeriodicFlushKeepsIdsForTheNextOne() {
+        when(redisTemplate.executePipelined(any(RedisCallback.class)))
+                .thenThrow(new IllegalStateException("connection reset"))
+                .thenReturn(List.of());
+        accumulator.add(STREAM, "1-0");
+
+        accumulator.flushAll();
+        accumulator.flushAll();
+        accumulator.flushAll();
+
+        // third flush finds nothing left once the second one went through
+        verify(redisTemplate, times(2)).executePipelined(any(RedisCallback.class));
+    }
+}
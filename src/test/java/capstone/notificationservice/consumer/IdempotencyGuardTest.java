@@ -0,0 +1,150 @@
+package capstone.notificationservice.consumer;
+
+import capstone.notificationservice.config.StreamConsumerProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class IdempotencyGuardTest {
+
+    private static final String KEY = "notification:dedup:welcome-signup:evt-1";
+    private static final String OWNER = "processing:pod-1";
+    private static final String LEASE = String.valueOf(Duration.ofMinutes(5).toMillis());
+
+    @SuppressWarnings("unchecked")
+    private final RedisTemplate<String, Object> redisTemplate = mock(RedisTemplate.class);
+    private final StreamConsumerProperties properties = new StreamConsumerProperties();
+    private IdempotencyGuard guard;
+
+    @BeforeEach
+    void setUp() {
+        ConsumerIdentity identity = mock(ConsumerIdentity.class);
+        when(identity.getConsumerName()).thenReturn("pod-1");
+        guard = new IdempotencyGuard(redisTemplate, properties, identity);
+    }
+
+    @Test
+    void keyUsesProducerEventIdWhenPresent() {
+        MapRecord<String, String, String> record = MapRecord.create("welcome-signup", Map.of("eventId", "evt-1"))
+                .withId(RecordId.of("1-0"));
+
+        assertThat(guard.keyFor(record)).isEqualTo(KEY);
+    }
+
+    @Test
+    void keyFallsBackToOriginalIdSoRetriesShareIt() {
+        MapRecord<String, String, String> retried = MapRecord.create("welcome-signup",
+                Map.of(RetryScheduler.ORIGINAL_ID_FIELD, "1-0")).withId(RecordId.of("5-0"));
+        MapRecord<String, String, String> original = MapRecord.create("welcome-signup", Map.<String, String>of())
+                .withId(RecordId.of("1-0"));
+
+        assertThat(guard.keyFor(retried)).isEqualTo(guard.keyFor(original));
+    }
+
+    @Test
+    void acquiresFreeKey() {
+        stubAcquire("acquired");
+
+        assertThat(guard.acquire(KEY)).isEqualTo(IdempotencyGuard.Decision.ACQUIRED);
+    }
+
+    @Test
+    void reportsHandledKeyAsDuplicateAndRemembersItLocally() {
+        stubAcquire("done");
+
+        assertThat(guard.acquire(KEY)).isEqualTo(IdempotencyGuard.Decision.DUPLICATE);
+        assertThat(guard.acquire(KEY)).isEqualTo(IdempotencyGuard.Decision.DUPLICATE);
+        verify(redisTemplate, times(1)).execute(any(RedisScript.class), eq(List.of(KEY)), eq(OWNER), eq(LEASE));
+    }
+
+    @Test
+    void reportsKeyLeasedByAnotherReplicaAsInProgress() {
+        stubAcquire("processing:pod-2");
+
+        assertThat(guard.acquire(KEY)).isEqualTo(IdempotencyGuard.Decision.IN_PROGRESS);
+    }
+
+    @Test
+    void failsOpenWhenRedisIsDown() {
+        when(redisTemplate.execute(any(RedisScript.class), eq(List.of(KEY)), eq(OWNER), eq(LEASE)))
+                .thenThrow(new IllegalStateException("connection refused"));
+
+        assertThat(guard.acquire(KEY)).isEqualTo(IdempotencyGuard.Decision.ACQUIRED);
+    }
+
+    @Test
+    void markDoneMakesLaterAcquiresDuplicatesWithoutRedis() {
+        @SuppressWarnings("unchecked")
+        ValueOperations<String, Object> values = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(values);
+        stubAcquire("acquired");
+        guard.acquire(KEY);
+
+        guard.markDone(KEY);
+        clearInvocations(redisTemplate);
+
+        assertThat(guard.acquire(KEY)).isEqualTo(IdempotencyGuard.Decision.DUPLICATE);
+        verify(values).set(KEY, "done", properties.getIdempotency().getWindow());
+        verifyNoInteractions(redisTemplate);
+    }
+
+    @Test
+    void releaseGivesLeaseBackAndStopsRenewingIt() {
+        stubAcquire("acquired");
+        guard.acquire(KEY);
+
+        guard.release(KEY);
+
+        verify(redisTemplate).execute(argThat(script -> script.getScriptAsString().contains("DEL")),
+                eq(List.of(KEY)), eq(OWNER));
+        clearInvocations(redisTemplate);
+        guard.renewLeases();
+        verifyNoInteractions(redisTemplate);
+    }
+
+    @Test
+    void renewStopsOnceTheLeaseIsLost() {
+        AtomicInteger renewals = new AtomicInteger();
+        when(redisTemplate.execute(any(RedisScript.class), eq(List.of(KEY)), eq(OWNER), eq(LEASE)))
+                .thenAnswer(invocation -> {
+                    RedisScript<?> script = invocation.getArgument(0);
+                    if (script.getScriptAsString().contains("PEXPIRE")) {
+                        renewals.incrementAndGet();
+                        return 0L;
+                    }
+                    return "acquired";
+                });
+        guard.acquire(KEY);
+
+        guard.renewLeases();
+        guard.renewLeases();
+
+        assertThat(renewals).hasValue(1);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void stubAcquire(String state) {
+        when(redisTemplate.execute(any(RedisScript.class), eq(List.of(KEY)), eq(OWNER), eq(LEASE)))
+                .thenReturn(state);
+    }
+}
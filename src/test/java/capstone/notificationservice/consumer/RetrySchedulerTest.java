@@ -0,0 +1,133 @@
+package capstone.notificationservice.consumer;
+
+import capstone.notificationservice.config.StreamConsumerProperties;
+import capstone.notificationservice.metrics.PipelineMetrics;
+import com.fasterxml.jackson.core.JsonParseException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StreamOperations;
+import org.springframework.data.redis.core.ZSetOperations;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RetrySchedulerTest {
+
+    private static final String STREAM = "order-confirm";
+
+    @SuppressWarnings("unchecked")
+    private final RedisTemplate<String, Object> redisTemplate = mock(RedisTemplate.class);
+    @SuppressWarnings("unchecked")
+    private final ZSetOperations<String, Object> zSet = mock(ZSetOperations.class);
+    @SuppressWarnings("unchecked")
+    private final StreamOperations<String, Object, Object> streams = mock(StreamOperations.class);
+    private final StreamConsumerProperties properties = new StreamConsumerProperties();
+    private RetryScheduler retryScheduler;
+
+    @BeforeEach
+    void setUp() {
+        when(redisTemplate.opsForZSet()).thenReturn(zSet);
+        when(redisTemplate.opsForStream()).thenReturn(streams);
+        ConsumerIdentity identity = mock(ConsumerIdentity.class);
+        when(identity.getConsumerName()).thenReturn("pod-1");
+        retryScheduler = new RetryScheduler(redisTemplate, properties, identity, new PipelineMetrics(new SimpleMeterRegistry()));
+    }
+
+    @Test
+    void firstFailureIsRetriedAfterJitteredInitialBackoff() {
+        // initial backoff 2s, jitter keeps it between half and the full delay
+        assertRetriedWithin(record(null), 1_000, 2_000);
+    }
+
+    @Test
+    void backoffGrowsExponentiallyWithAttempts() {
+        // fourth attempt: 2s * 2^3
+        assertRetriedWithin(record("3"), 8_000, 16_000);
+    }
+
+    @Test
+    void backoffIsCappedAtMaxBackoff() {
+        StreamConsumerProperties.RetryPolicy policy = new StreamConsumerProperties.RetryPolicy();
+        policy.setMaxAttempts(50);
+        StreamConsumerProperties.StreamSettings settings = new StreamConsumerProperties.StreamSettings();
+        settings.setRetry(policy);
+        properties.getStreams().put(STREAM, settings);
+
+        assertRetriedWithin(record("20"), 150_000, 300_000);
+    }
+
+    @Test
+    void lastAllowedAttemptGoesToDeadLetterStream() {
+        retryScheduler.handleFailure(record("4"), new IllegalStateException("smtp down"));
+
+        Map<String, String> body = deadLetterBody();
+        assertThat(body).containsEntry("originalStream", STREAM)
+                .containsEntry(RetryScheduler.ORIGINAL_ID_FIELD, "1-0")
+                .containsEntry("attempts", "5")
+                .containsEntry("error", "smtp down");
+        verify(zSet, never()).add(anyString(), any(), anyDouble());
+    }
+
+    @Test
+    void deadLetterBookkeepingIsExactlyWhatReplayStrips() {
+        retryScheduler.handleFailure(record("4"), new IllegalStateException("smtp down"));
+
+        Map<String, String> body = deadLetterBody();
+        assertThat(body).containsKeys(RetryScheduler.DEAD_LETTER_FIELDS.toArray(String[]::new));
+        assertThat(body.keySet()).filteredOn(field -> !RetryScheduler.DEAD_LETTER_FIELDS.contains(field))
+                .containsExactlyInAnyOrder(RetryScheduler.PAYLOAD_FIELD, RetryScheduler.ORIGINAL_ID_FIELD);
+    }
+
+    @Test
+    void unreadablePayloadGoesToDeadLetterStreamRightAway() {
+        retryScheduler.handleFailure(record(null), new JsonParseException(null, "unexpected token"));
+
+        assertThat(deadLetterBody()).containsEntry("attempts", "1");
+        verify(zSet, never()).add(anyString(), any(), anyDouble());
+    }
+
+    private void assertRetriedWithin(MapRecord<String, String, String> record, long minDelayMs, long maxDelayMs) {
+        long before = System.currentTimeMillis();
+        retryScheduler.handleFailure(record, new IllegalStateException("smtp down"));
+        long after = System.currentTimeMillis();
+
+        ArgumentCaptor<Double> score = ArgumentCaptor.forClass(Double.class);
+        verify(zSet).add(eq(properties.getRetry().getQueueKey()), any(), score.capture());
+        verify(streams, never()).add(anyString(), anyMap());
+        assertThat(score.getValue().longValue()).isBetween(before + minDelayMs, after + maxDelayMs);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, String> deadLetterBody() {
+        ArgumentCaptor<Map<String, String>> body = ArgumentCaptor.forClass(Map.class);
+        verify(streams).add(eq(STREAM + ".dlq"), body.capture());
+        return body.getValue();
+    }
+
+    private static MapRecord<String, String, String> record(String attempt) {
+        Map<String, String> body = new LinkedHashMap<>();
+        body.put(RetryScheduler.PAYLOAD_FIELD, "{\"orderId\":1}");
+        if (attempt != null) {
+            body.put(RetryScheduler.ATTEMPT_FIELD, attempt);
+            body.put(RetryScheduler.ORIGINAL_ID_FIELD, "1-0");
+            return MapRecord.create(STREAM, body).withId(RecordId.of("9-0"));
+        }
+        return MapRecord.create(STREAM, body).withId(RecordId.of("1-0"));
+    }
+}
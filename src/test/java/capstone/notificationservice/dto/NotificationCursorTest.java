@@ -0,0 +1,40 @@
+package capstone.notificationservice.dto;
+
+import capstone.notificationservice.exception.AppException;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class NotificationCursorTest {
+
+    @Test
+    void roundTripsCreatedAtAndId() {
+        NotificationCursor cursor = new NotificationCursor(LocalDateTime.of(2024, 7, 27, 18, 30, 5, 123_456_000), 42L);
+
+        assertThat(NotificationCursor.decode(cursor.encode())).isEqualTo(cursor);
+    }
+
+    @Test
+    void keepsTimestampsWithoutSecondsExact() {
+        // LocalDateTime.toString drops zero seconds, the parser must still read it back
+        NotificationCursor cursor = new NotificationCursor(LocalDateTime.of(2024, 7, 27, 18, 30), 7L);
+
+        assertThat(NotificationCursor.decode(cursor.encode())).isEqualTo(cursor);
+    }
+
+    @Test
+    void encodesToUrlSafeTokenWithoutPadding() {
+        String token = new NotificationCursor(LocalDateTime.of(2024, 1, 1, 0, 0, 1), Long.MAX_VALUE).encode();
+
+        assertThat(token).doesNotContain("+", "/", "=");
+    }
+
+    @Test
+    void rejectsMalformedTokens() {
+        assertThatThrownBy(() -> NotificationCursor.decode("not a cursor")).isInstanceOf(AppException.class);
+        assertThatThrownBy(() -> NotificationCursor.decode("MjAyNC0wMS0wMVQwMDowMA")).isInstanceOf(AppException.class);
+    }
+}
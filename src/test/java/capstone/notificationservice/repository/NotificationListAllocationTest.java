@@ -0,0 +1,119 @@
+package capstone.notificationservice.repository;
+
+import capstone.notificationservice.dto.NotificationDTO;
+import capstone.notificationservice.entity.Notification;
+import capstone.notificationservice.enums.NotificationType;
+import com.sun.management.ThreadMXBean;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.data.domain.PageRequest;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares the heap allocated per page by the shipped list read, the JPQL projection of
+ * {@link NotificationRepository#findRecentByUserId}, with the entity read it replaced: the
+ * derived {@code findByUserIdOrderByCreatedAtDesc} page query plus its count, mapped through
+ * {@link NotificationDTO#fromEntity}. Each read starts from an empty persistence context, as a
+ * request does.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+class NotificationListAllocationTest {
+
+    private static final long USER_ID = 42L;
+    private static final int PAGE_SIZE = 50;
+    private static final int WARM_UP = 200;
+    private static final int ITERATIONS = 200;
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private LocalDateTime since;
+
+    @BeforeEach
+    void setUp() {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        since = now.minusDays(30);
+        notificationRepository.insertAll(IntStream.range(0, PAGE_SIZE * 2)
+                .mapToObj(i -> Notification.builder()
+                        .userId(USER_ID)
+                        .title("title-" + i)
+                        .message("message-" + i)
+                        .type(NotificationType.EVENT)
+                        .createdAt(now.minusMinutes(i))
+                        .build())
+                .toList());
+    }
+
+    @Test
+    void projectionAllocatesLessPerPageThanEntityMapping() {
+        Runnable projection = () -> {
+            entityManager.clear();
+            List<NotificationDTO> page = notificationRepository
+                    .findRecentByUserId(USER_ID, since, PageRequest.of(0, PAGE_SIZE))
+                    .getContent();
+            assertThat(page).hasSize(PAGE_SIZE);
+        };
+        Runnable entityMapping = () -> {
+            entityManager.clear();
+            List<NotificationDTO> page = entityManager.getEntityManager()
+                    .createQuery("select n from Notification n where n.userId = :userId order by n.createdAt desc",
+                            Notification.class)
+                    .setParameter("userId", USER_ID)
+                    .setMaxResults(PAGE_SIZE)
+                    .getResultList()
+                    .stream()
+                    .map(NotificationDTO::fromEntity)
+                    .toList();
+            entityManager.getEntityManager()
+                    .createQuery("select count(n) from Notification n where n.userId = :userId", Long.class)
+                    .setParameter("userId", USER_ID)
+                    .getSingleResult();
+            assertThat(page).hasSize(PAGE_SIZE);
+        };
+
+        for (int i = 0; i < WARM_UP; i++) {
+            projection.run();
+            entityMapping.run();
+        }
+        long projectionBytes = allocatedPerRun(projection);
+        long entityBytes = allocatedPerRun(entityMapping);
+
+        assertThat(projectionBytes)
+                .as("bytes per page: projection %d, entity mapping %d", projectionBytes, entityBytes)
+                .isLessThan(entityBytes);
+    }
+
+    private static long allocatedPerRun(Runnable read) {
+        ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().threadId();
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < ITERATIONS; i++) {
+            read.run();
+        }
+        return (threads.getThreadAllocatedBytes(threadId) - before) / ITERATIONS;
+    }
+}
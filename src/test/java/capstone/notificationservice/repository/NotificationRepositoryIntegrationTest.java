@@ -0,0 +1,115 @@
+package capstone.notificationservice.repository;
+
+import capstone.notificationservice.dto.NotificationDTO;
+import capstone.notificationservice.entity.Notification;
+import capstone.notificationservice.enums.NotificationType;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+class NotificationRepositoryIntegrationTest {
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void insertAllAssignsReturnedIdsInRowOrderAcrossStatements() {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        // one more row than fits in one statement
+        List<Notification> notifications = IntStream.range(0, 1001)
+                .mapToObj(i -> notification(1L, "title-" + i, now))
+                .toList();
+
+        notificationRepository.insertAll(notifications);
+
+        Map<Long, String> titles = jdbcTemplate.query("SELECT id, title FROM notification_service.notifications",
+                        (rs, rowNum) -> Map.entry(rs.getLong("id"), rs.getString("title")))
+                .stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+        assertThat(notifications).allSatisfy(notification ->
+                assertThat(titles).containsEntry(notification.getId(), notification.getTitle()));
+        assertThat(notifications).extracting(Notification::getId).doesNotHaveDuplicates();
+    }
+
+    @Test
+    void insertedRowsLandInTheirMonthlyPartition() {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        Notification notification = notification(1L, "title", now);
+
+        notificationRepository.insertAll(List.of(notification));
+
+        String partition = jdbcTemplate.queryForObject(
+                "SELECT tableoid::regclass::text FROM notification_service.notifications WHERE id = ?",
+                String.class, notification.getId());
+        assertThat(partition).endsWith("notifications_p" + now.format(DateTimeFormatter.ofPattern("yyyyMM")));
+    }
+
+    @Test
+    void keysetPagingVisitsRowsWithTiedTimestampsExactlyOnce() {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        List<Notification> notifications = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            notifications.add(notification(7L, "tied-" + i, now));
+        }
+        notifications.add(notification(7L, "older", now.minusSeconds(1)));
+        notifications.add(notification(8L, "other user", now));
+        notificationRepository.insertAll(notifications);
+
+        LocalDateTime since = now.minusDays(1);
+        PageRequest limit = PageRequest.of(0, 2);
+        List<Long> visited = new ArrayList<>();
+        List<NotificationDTO> slice = notificationRepository.findFirstSlice(7L, since, limit);
+        while (!slice.isEmpty()) {
+            slice.forEach(row -> visited.add(row.getId()));
+            NotificationDTO last = slice.get(slice.size() - 1);
+            slice = notificationRepository.findSliceAfter(7L, since, last.getCreatedAt(), last.getId(), limit);
+        }
+
+        List<Long> expected = notifications.stream()
+                .filter(notification -> notification.getUserId() == 7L)
+                .sorted((a, b) -> a.getCreatedAt().equals(b.getCreatedAt())
+                        ? Long.compare(b.getId(), a.getId())
+                        : b.getCreatedAt().compareTo(a.getCreatedAt()))
+                .map(Notification::getId)
+                .toList();
+        assertThat(visited).containsExactlyElementsOf(expected);
+    }
+
+    private static Notification notification(Long userId, String title, LocalDateTime createdAt) {
+        return Notification.builder()
+                .userId(userId)
+                .title(title)
+                .message("message")
+                .type(NotificationType.EVENT)
+                .createdAt(createdAt)
+                .build();
+    }
+}
@@ -0,0 +1,106 @@
+package capstone.notificationservice.repository;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs V2 against tables created by V1, as existing databases have them. Each test migrates its
+ * own schema so they do not see each other's rows.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class PartitionMigrationTest {
+
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Test
+    void movesLegacyRowsIntoMonthlyPartitions() {
+        String schema = "legacy_rows";
+        JdbcTemplate jdbcTemplate = jdbcTemplate(schema);
+        migrate(schema, "1");
+        LocalDateTime old = LocalDateTime.now().minusMonths(14);
+        jdbcTemplate.update("INSERT INTO notifications (id, user_id, title, is_read, created_at) VALUES (?, ?, ?, ?, ?)",
+                5L, 1L, "old", true, old);
+        jdbcTemplate.update("INSERT INTO notifications (id, user_id, title, is_read, created_at) VALUES (?, ?, ?, ?, ?)",
+                9L, 1L, "recent", false, LocalDateTime.now());
+        jdbcTemplate.update("INSERT INTO notifications (id, user_id, title, is_read) VALUES (?, ?, ?, ?)",
+                7L, 2L, "undated", false);
+
+        migrate(schema, "2");
+
+        assertThat(jdbcTemplate.queryForList("SELECT id FROM notifications ORDER BY id", Long.class))
+                .containsExactly(5L, 7L, 9L);
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM notifications WHERE created_at IS NULL", Long.class))
+                .isZero();
+        assertThat(jdbcTemplate.queryForObject("SELECT tableoid::regclass::text FROM notifications WHERE id = 5", String.class))
+                .endsWith("notifications_p" + YearMonth.from(old).format(PARTITION_SUFFIX));
+        assertThat(partitions(jdbcTemplate, schema))
+                .contains("notifications_p" + YearMonth.now().plusMonths(3).format(PARTITION_SUFFIX));
+        assertThat(jdbcTemplate.queryForObject("SELECT to_regclass('notifications_legacy') IS NULL", Boolean.class))
+                .isTrue();
+
+        Long next = jdbcTemplate.queryForObject("INSERT INTO notifications (user_id, title) VALUES (3, 'new') RETURNING id",
+                Long.class);
+        assertThat(next).isGreaterThan(9L);
+    }
+
+    @Test
+    void emptyTableGetsCurrentAndUpcomingPartitions() {
+        String schema = "empty_table";
+        JdbcTemplate jdbcTemplate = jdbcTemplate(schema);
+        migrate(schema, "1");
+
+        migrate(schema, "2");
+
+        YearMonth current = YearMonth.now();
+        assertThat(partitions(jdbcTemplate, schema)).containsExactlyInAnyOrder(
+                "notifications_p" + current.format(PARTITION_SUFFIX),
+                "notifications_p" + current.plusMonths(1).format(PARTITION_SUFFIX),
+                "notifications_p" + current.plusMonths(2).format(PARTITION_SUFFIX),
+                "notifications_p" + current.plusMonths(3).format(PARTITION_SUFFIX));
+        Long first = jdbcTemplate.queryForObject("INSERT INTO notifications (user_id, title) VALUES (1, 'first') RETURNING id",
+                Long.class);
+        assertThat(first).isEqualTo(1L);
+    }
+
+    private static void migrate(String schema, String target) {
+        Flyway.configure()
+                .dataSource(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword())
+                .schemas(schema)
+                .defaultSchema(schema)
+                .target(target)
+                .load()
+                .migrate();
+    }
+
+    private static List<String> partitions(JdbcTemplate jdbcTemplate, String schema) {
+        return jdbcTemplate.queryForList("""
+                SELECT c.relname FROM pg_inherits i
+                JOIN pg_class c ON c.oid = i.inhrelid
+                JOIN pg_class p ON p.oid = i.inhparent
+                JOIN pg_namespace n ON n.oid = p.relnamespace
+                WHERE p.relname = 'notifications' AND n.nspname = ?
+                """, String.class, schema);
+    }
+
+    private static JdbcTemplate jdbcTemplate(String schema) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+        dataSource.setSchema(schema);
+        return new JdbcTemplate(dataSource);
+    }
+}
@@ -0,0 +1,128 @@
+package capstone.notificationservice.service;
+
+import capstone.notificationservice.enums.NotificationType;
+import capstone.notificationservice.repository.NotificationOutboxRepository;
+import capstone.notificationservice.repository.NotificationOutboxRepository.Entry;
+import capstone.notificationservice.websocket.RealtimePublisher;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class NotificationOutboxDispatcherTest {
+
+    private final NotificationOutboxRepository outboxRepository = mock(NotificationOutboxRepository.class);
+    private final RealtimePublisher realtimePublisher = mock(RealtimePublisher.class);
+    private final BroadcastProgressTracker broadcastProgressTracker = mock(BroadcastProgressTracker.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private NotificationOutboxDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        dispatcher = dispatcher(Duration.ofSeconds(30));
+        when(realtimePublisher.publish(any(), any(), any())).thenReturn(CompletableFuture.completedFuture(null));
+    }
+
+    @Test
+    void marksOnlyPublishedRowsDeliveredAndBacksOffTheRest() throws Exception {
+        when(outboxRepository.claimPending(any(), any(), eq(10), eq(500))).thenReturn(List.of(
+                entry(1L, 100L), entry(2L, 200L), entry(3L, 300L)));
+        doThrow(new IllegalStateException("redis down"))
+                .when(realtimePublisher).publish(eq(200L), any(), any());
+
+        int dispatched = dispatcher.dispatchBatch();
+
+        assertThat(dispatched).isEqualTo(3);
+        verify(outboxRepository).markDelivered(eq(List.of(1L, 3L)), any());
+        verify(outboxRepository).markFailed(eq(List.of(2L)), any(), eq(2L), eq(300L));
+        assertThat(meterRegistry.counter("notification.outbox.delivered").count()).isEqualTo(2);
+        assertThat(meterRegistry.counter("notification.outbox.failed.pushes").count()).isEqualTo(1);
+    }
+
+    @Test
+    void rowsAreOnlyDeliveredOnceTheirFrameWasSent() throws Exception {
+        when(outboxRepository.claimPending(any(), any(), anyInt(), anyInt())).thenReturn(List.of(
+                entry(1L, 100L), entry(2L, 200L)));
+        when(realtimePublisher.publish(eq(100L), any(), any()))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("session gone")));
+
+        dispatcher.dispatchBatch();
+
+        verify(outboxRepository).markDelivered(eq(List.of(2L)), any());
+        verify(outboxRepository).markFailed(eq(List.of(1L)), any(), anyLong(), anyLong());
+    }
+
+    @Test
+    void reportsSentBroadcastRowsPerBroadcast() throws Exception {
+        when(outboxRepository.claimPending(any(), any(), anyInt(), anyInt())).thenReturn(List.of(
+                entry(1L, 100L, "b-1"), entry(2L, 200L, "b-1"), entry(3L, 300L, "b-2"), entry(4L, 400L, null)));
+        doThrow(new IllegalStateException("redis down"))
+                .when(realtimePublisher).publish(eq(300L), any(), any());
+
+        dispatcher.dispatchBatch();
+
+        verify(broadcastProgressTracker).pushed(Map.of("b-1", 2L));
+    }
+
+    @Test
+    void pushesStillPendingWhenTheWaitEndsAreRetried() throws Exception {
+        dispatcher = dispatcher(Duration.ofMillis(100));
+        when(outboxRepository.claimPending(any(), any(), anyInt(), anyInt())).thenReturn(List.of(entry(1L, 100L)));
+        when(realtimePublisher.publish(any(), any(), any())).thenReturn(new CompletableFuture<>());
+
+        dispatcher.dispatchBatch();
+
+        verify(outboxRepository, never()).markDelivered(anyList(), any());
+        verify(outboxRepository).markFailed(eq(List.of(1L)), any(), anyLong(), anyLong());
+    }
+
+    @Test
+    void allPushesFailingDeliversNothing() throws Exception {
+        when(outboxRepository.claimPending(any(), any(), anyInt(), anyInt())).thenReturn(List.of(entry(1L, 100L)));
+        doThrow(new IllegalStateException("redis down"))
+                .when(realtimePublisher).publish(any(), any(), any());
+
+        dispatcher.dispatchBatch();
+
+        verify(outboxRepository, never()).markDelivered(anyList(), any());
+        verify(outboxRepository).markFailed(eq(List.of(1L)), any(), anyLong(), anyLong());
+    }
+
+    @Test
+    void emptyOutboxTouchesNothing() throws Exception {
+        when(outboxRepository.claimPending(any(), any(), anyInt(), anyInt())).thenReturn(List.of());
+
+        assertThat(dispatcher.dispatchBatch()).isZero();
+        verify(outboxRepository, never()).markDelivered(anyList(), any());
+        verify(outboxRepository, never()).markFailed(anyList(), any(), anyLong(), anyLong());
+    }
+
+    private NotificationOutboxDispatcher dispatcher(Duration claimLease) {
+        return new NotificationOutboxDispatcher(outboxRepository, realtimePublisher, broadcastProgressTracker, meterRegistry,
+                500, 4, 1000, Duration.ofDays(1), 10, claimLease, Duration.ofSeconds(2), Duration.ofMinutes(5));
+    }
+
+    private static Entry entry(Long id, Long userId) {
+        return entry(id, userId, null);
+    }
+
+    private static Entry entry(Long id, Long userId, String broadcastId) {
+        return new Entry(id, id * 10, userId, NotificationType.EVENT, "{\"id\":" + id * 10 + "}", broadcastId);
+    }
+}
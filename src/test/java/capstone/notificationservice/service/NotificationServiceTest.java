@@ -0,0 +1,90 @@
+package capstone.notificationservice.service;
+
+import capstone.notificationservice.config.RetentionProperties;
+import capstone.notificationservice.dto.NotificationCursor;
+import capstone.notificationservice.dto.NotificationCursorResponse;
+import capstone.notificationservice.dto.NotificationDTO;
+import capstone.notificationservice.enums.NotificationType;
+import capstone.notificationservice.repository.NotificationRepository;
+import capstone.notificationservice.security.JwtUtil;
+import capstone.notificationservice.security.TokenMetaData;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class NotificationServiceTest {
+
+    private static final Long USER_ID = 42L;
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 7, 27, 12, 0);
+
+    @Mock
+    private NotificationRepository notificationRepository;
+
+    @Mock
+    private JwtUtil jwtUtil;
+
+    @Spy
+    private RetentionProperties retentionProperties = new RetentionProperties();
+
+    @InjectMocks
+    private NotificationService service;
+
+    @BeforeEach
+    void setUp() {
+        when(jwtUtil.getDataFromAuth()).thenReturn(new TokenMetaData(USER_ID, false, null));
+    }
+
+    @Test
+    void extraRowBecomesNextCursorPointingAtLastReturnedRow() {
+        List<NotificationDTO> rows = List.of(row(3, NOW), row(2, NOW), row(1, NOW.minusMinutes(1)));
+        when(notificationRepository.findFirstSlice(eq(USER_ID), any(), eq(PageRequest.of(0, 3)))).thenReturn(rows);
+
+        NotificationCursorResponse response = service.getNotificationsByCursor(null, 2);
+
+        assertThat(response.getContent()).extracting(NotificationDTO::getId).containsExactly(3L, 2L);
+        assertThat(response.isHasNext()).isTrue();
+        assertThat(NotificationCursor.decode(response.getNextCursor())).isEqualTo(new NotificationCursor(NOW, 2L));
+    }
+
+    @Test
+    void exactlyFullSliceHasNoNextCursor() {
+        when(notificationRepository.findFirstSlice(eq(USER_ID), any(), any()))
+                .thenReturn(List.of(row(3, NOW), row(2, NOW)));
+
+        NotificationCursorResponse response = service.getNotificationsByCursor(null, 2);
+
+        assertThat(response.getContent()).hasSize(2);
+        assertThat(response.isHasNext()).isFalse();
+        assertThat(response.getNextCursor()).isNull();
+    }
+
+    @Test
+    void cursorResumesAfterItsPosition() {
+        String cursor = new NotificationCursor(NOW, 2L).encode();
+        when(notificationRepository.findSliceAfter(eq(USER_ID), any(), eq(NOW), eq(2L), eq(PageRequest.of(0, 3))))
+                .thenReturn(List.of(row(1, NOW.minusMinutes(1))));
+
+        NotificationCursorResponse response = service.getNotificationsByCursor(cursor, 2);
+
+        assertThat(response.getContent()).extracting(NotificationDTO::getId).containsExactly(1L);
+        assertThat(response.isHasNext()).isFalse();
+    }
+
+    private static NotificationDTO row(long id, LocalDateTime createdAt) {
+        return new NotificationDTO(id, USER_ID, "title", "message", NotificationType.EVENT, false, createdAt, null, null);
+    }
+}
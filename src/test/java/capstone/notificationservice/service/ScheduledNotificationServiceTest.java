@@ -0,0 +1,153 @@
+package capstone.notificationservice.service;
+
+import capstone.notificationservice.entity.Notification;
+import capstone.notificationservice.enums.NotificationType;
+import capstone.notificationservice.event.ScheduledNotificationEvent;
+import capstone.notificationservice.exception.AppException;
+import capstone.notificationservice.repository.ScheduledNotificationRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ScheduledNotificationServiceTest {
+
+    private static final LocalDateTime DELIVER_AT = LocalDateTime.of(2024, 7, 27, 18, 0);
+
+    private final ScheduledNotificationRepository repository = mock(ScheduledNotificationRepository.class);
+    private final NotificationService notificationService = mock(NotificationService.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ScheduledNotificationService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new ScheduledNotificationService(repository, notificationService,
+                mock(PlatformTransactionManager.class), meterRegistry,
+                1000, 50, 5, Duration.ofSeconds(30), 1000);
+    }
+
+    @Test
+    void rescheduleReplacesThePreviousAudience() {
+        int scheduled = service.schedule(event("event-reminder:42", List.of(1L, 2L, 2L), "Starts in one hour"));
+
+        assertThat(scheduled).isEqualTo(2);
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Notification>> rows = ArgumentCaptor.forClass(List.class);
+        InOrder order = inOrder(repository);
+        order.verify(repository).deleteByScheduleKey("event-reminder:42");
+        order.verify(repository).insertAll(eq("event-reminder:42"), rows.capture(), eq(DELIVER_AT));
+        assertThat(rows.getValue()).extracting(Notification::getUserId).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void scheduleWithoutKeyDeletesNothing() {
+        service.schedule(event(null, List.of(1L), "Starts in one hour"));
+
+        verify(repository, never()).deleteByScheduleKey(any());
+        verify(repository).insertAll(eq(null), anyList(), eq(DELIVER_AT));
+    }
+
+    @Test
+    void rejectsMessagesLongerThanTheColumn() {
+        assertThatThrownBy(() -> service.schedule(event(null, List.of(1L), "x".repeat(256))))
+                .isInstanceOf(AppException.class);
+
+        verify(repository, never()).insertAll(any(), anyList(), any());
+    }
+
+    @Test
+    void releasesDueBatchAsUnreadNotifications() {
+        Notification first = notification(1L);
+        Notification second = notification(2L);
+        first.setRead(true);
+        when(repository.takeDue(any(), eq(1000))).thenReturn(List.of(first, second));
+
+        service.releaseDue();
+
+        verify(notificationService).createAndSendNotifications(List.of(first, second));
+        assertThat(first.isRead()).isFalse();
+        assertThat(first.getCreatedAt()).isNotNull().isEqualTo(second.getCreatedAt());
+        assertThat(meterRegistry.counter("notification.scheduled.released").count()).isEqualTo(2);
+    }
+
+    @Test
+    void failedBatchIsReleasedRowByRowAndOnlyTheBadRowBacksOff() {
+        Notification good = notification(1L);
+        Notification bad = notification(2L);
+        when(repository.takeDue(any(), anyInt())).thenReturn(List.of(good, bad));
+        when(repository.findDueIds(any(), anyInt())).thenReturn(List.of(10L, 20L));
+        when(repository.takeById(eq(10L), any())).thenReturn(List.of(good));
+        when(repository.takeById(eq(20L), any())).thenReturn(List.of(bad));
+        doAnswer(invocation -> {
+            List<Notification> rows = invocation.getArgument(0);
+            if (rows.contains(bad)) {
+                throw new IllegalStateException("value too long");
+            }
+            return null;
+        }).when(notificationService).createAndSendNotifications(anyList());
+
+        service.releaseDue();
+
+        verify(notificationService).createAndSendNotifications(List.of(good));
+        verify(repository).recordFailure(eq(20L), any(), eq("value too long"), eq(5), eq(30L));
+        verify(repository, never()).recordFailure(eq(10L), any(), anyString(), anyInt(), anyLong());
+        assertThat(meterRegistry.counter("notification.scheduled.released").count()).isEqualTo(1);
+    }
+
+    @Test
+    void rowOutOfAttemptsIsCountedAsFailed() {
+        Notification bad = notification(2L);
+        when(repository.takeDue(any(), anyInt())).thenThrow(new IllegalStateException("value too long"));
+        when(repository.findDueIds(any(), anyInt())).thenReturn(List.of(20L));
+        when(repository.takeById(eq(20L), any())).thenReturn(List.of(bad));
+        doAnswer(invocation -> {
+            throw new IllegalStateException("value too long");
+        }).when(notificationService).createAndSendNotifications(anyList());
+        when(repository.recordFailure(eq(20L), any(), anyString(), anyInt(), anyLong())).thenReturn(true);
+
+        service.releaseDue();
+
+        assertThat(meterRegistry.counter("notification.scheduled.failed").count()).isEqualTo(1);
+    }
+
+    private static ScheduledNotificationEvent event(String scheduleKey, List<Long> userIds, String message) {
+        return ScheduledNotificationEvent.builder()
+                .scheduleKey(scheduleKey)
+                .userIds(userIds)
+                .title("Concert Mùa Hè")
+                .message(message)
+                .type(NotificationType.EVENT)
+                .deliverAt(DELIVER_AT)
+                .build();
+    }
+
+    private static Notification notification(Long userId) {
+        return Notification.builder()
+                .userId(userId)
+                .title("Concert Mùa Hè")
+                .message("Starts in one hour")
+                .type(NotificationType.EVENT)
+                .build();
+    }
+}